@@ -0,0 +1,118 @@
+package jun.java8.benchmark;
+
+import jun.java8.example.DoubleStatistics;
+import jun.java8.example.IntList;
+import jun.java8.example.LongStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * Boxed against primitive streams, as in java8-boxed-stream-example.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoxedStreamBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private int[] values;
+    private double[] doubles;
+
+    @Setup
+    public void setUp() {
+        values = new Random(42).ints(size).toArray();
+        doubles = new Random(42).doubles(size).toArray();
+    }
+
+    @Benchmark
+    public List<Integer> collectBoxed() {
+        return IntStream.of(values).boxed().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public IntList collectIntList() {
+        return IntStream.of(values).collect(IntList::new, IntList::add, IntList::addAll);
+    }
+
+    @Benchmark
+    public IntList collectIntListParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> IntStream.of(values).parallel()
+                .collect(IntList::new, IntList::add, IntList::addAll));
+    }
+
+    @Benchmark
+    public Optional<Integer> maxBoxed() {
+        return IntStream.of(values).boxed().max(Integer::compareTo);
+    }
+
+    @Benchmark
+    public Optional<Integer> maxBoxedParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> IntStream.of(values).parallel().boxed().max(Integer::compareTo));
+    }
+
+    @Benchmark
+    public OptionalInt maxPrimitive() {
+        return IntStream.of(values).max();
+    }
+
+    @Benchmark
+    public OptionalInt maxPrimitiveParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> IntStream.of(values).parallel().max());
+    }
+
+    @Benchmark
+    public IntSummaryStatistics summaryStatistics() {
+        return IntStream.of(values).summaryStatistics();
+    }
+
+    @Benchmark
+    public LongStatistics longStatistics() {
+        return LongStatistics.of(values);
+    }
+
+    @Benchmark
+    public LongStatistics collectLongStatisticsParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> IntStream.of(values).parallel()
+                .collect(LongStatistics::new, LongStatistics::accept, LongStatistics::combine));
+    }
+
+    @Benchmark
+    public Optional<Double> maxBoxedDouble() {
+        return DoubleStream.of(doubles).boxed().max(Double::compareTo);
+    }
+
+    @Benchmark
+    public DoubleSummaryStatistics doubleSummaryStatistics() {
+        return DoubleStream.of(doubles).summaryStatistics();
+    }
+
+    @Benchmark
+    public DoubleStatistics doubleStatistics() {
+        return DoubleStatistics.of(doubles);
+    }
+}
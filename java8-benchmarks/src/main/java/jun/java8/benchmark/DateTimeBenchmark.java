@@ -0,0 +1,78 @@
+package jun.java8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DateTimeFormatter format and parse, as in java8-datetime-example.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTimeBenchmark {
+
+    private static final String PATTERN = "yyyy-MM-dd HH:mm:ss.SSS";
+
+    @Param({"1000"})
+    public int size;
+
+    private LocalDateTime[] dateTimes;
+    private String[] texts;
+    private DateTimeFormatter formatter;
+
+    @Setup
+    public void setUp() {
+        formatter = new DateTimeFormatterBuilder().appendPattern(PATTERN).toFormatter();
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        dateTimes = new LocalDateTime[size];
+        texts = new String[size];
+        for (int i = 0; i < size; i++) {
+            dateTimes[i] = start.plusSeconds(i * 7919L).plusNanos(i * 1_000_000L);
+            texts[i] = dateTimes[i].format(formatter);
+        }
+    }
+
+    @Benchmark
+    public int format() {
+        int length = 0;
+        for (LocalDateTime dateTime : dateTimes) {
+            length += dateTime.format(formatter).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int formatWithNewFormatter() {
+        int length = 0;
+        for (LocalDateTime dateTime : dateTimes) {
+            length += dateTime.format(DateTimeFormatter.ofPattern(PATTERN)).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public long parse() {
+        long sum = 0;
+        for (String text : texts) {
+            sum += LocalDateTime.parse(text, formatter).getNano();
+        }
+        return sum;
+    }
+}
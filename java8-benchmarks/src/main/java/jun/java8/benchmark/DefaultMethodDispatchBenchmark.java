@@ -0,0 +1,199 @@
+package jun.java8.benchmark;
+
+import jun.java8.example.DefaultMethodTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * <p>
+ * Choosing one of N conflicting default methods by comparing its name on every call
+ * against choosing it once, as for Conflicts in java8-default-method-example: as a
+ * lambda bound through DefaultMethodTable, which Conflicts uses, or as a method handle
+ * from findSpecial() kept in a field, which the JIT cannot inline. The defaults are trivial
+ * so that the dispatch itself is measured, by 4 threads sharing the same instances.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class DefaultMethodDispatchBenchmark {
+
+    public interface One {
+        default int call(int x) {
+            return x + 1;
+        }
+    }
+
+    public interface Two {
+        default int call(int x) {
+            return x + 2;
+        }
+    }
+
+    public interface Three {
+        default int call(int x) {
+            return x + 3;
+        }
+    }
+
+    public interface Four {
+        default int call(int x) {
+            return x + 4;
+        }
+    }
+
+    public static class StringDispatch implements One, Two, Three, Four {
+
+        private final String chosen;
+
+        StringDispatch(String chosen) {
+            this.chosen = chosen;
+        }
+
+        @Override
+        public int call(int x) {
+            if (chosen.equals("One")) {
+                return One.super.call(x);
+            } else if (chosen.equals("Two")) {
+                return Two.super.call(x);
+            } else if (chosen.equals("Three")) {
+                return Three.super.call(x);
+            } else {
+                return Four.super.call(x);
+            }
+        }
+    }
+
+    public static class ResolvedDispatch implements One, Two, Three, Four {
+
+        private static final DefaultMethodTable<ResolvedDispatch, IntUnaryOperator> CALLS =
+                new DefaultMethodTable<ResolvedDispatch, IntUnaryOperator>(ResolvedDispatch.class)
+                        .put(One.class, d -> d::callOne)
+                        .put(Two.class, d -> d::callTwo)
+                        .put(Three.class, d -> d::callThree)
+                        .put(Four.class, d -> d::callFour);
+
+        private final IntUnaryOperator chosen;
+
+        ResolvedDispatch(String chosen) {
+            this.chosen = CALLS.bind(this, chosen);
+        }
+
+        @Override
+        public int call(int x) {
+            return chosen.applyAsInt(x);
+        }
+
+        private int callOne(int x) {
+            return One.super.call(x);
+        }
+
+        private int callTwo(int x) {
+            return Two.super.call(x);
+        }
+
+        private int callThree(int x) {
+            return Three.super.call(x);
+        }
+
+        private int callFour(int x) {
+            return Four.super.call(x);
+        }
+    }
+
+    public static class HandleDispatch implements One, Two, Three, Four {
+
+        private final MethodHandle chosen;
+
+        HandleDispatch(String chosen) {
+            Class<?> iface;
+            switch (chosen) {
+                case "One":
+                    iface = One.class;
+                    break;
+                case "Two":
+                    iface = Two.class;
+                    break;
+                case "Three":
+                    iface = Three.class;
+                    break;
+                default:
+                    iface = Four.class;
+                    break;
+            }
+            try {
+                this.chosen = MethodHandles.lookup().findSpecial(iface, "call",
+                        MethodType.methodType(int.class, int.class), HandleDispatch.class);
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public int call(int x) {
+            try {
+                return (int) chosen.invokeExact(this, x);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new UndeclaredThrowableException(ex);
+            }
+        }
+    }
+
+    /**
+     * The position of the chosen interface in the if/else chain.
+     */
+    @Param({"One", "Four"})
+    public String chosen;
+
+    private StringDispatch stringDispatch;
+    private ResolvedDispatch resolvedDispatch;
+    private HandleDispatch handleDispatch;
+    private int x;
+
+    @Setup
+    public void setUp() {
+        // new String() so that equals() cannot succeed on identity.
+        stringDispatch = new StringDispatch(new String(chosen));
+        resolvedDispatch = new ResolvedDispatch(chosen);
+        handleDispatch = new HandleDispatch(chosen);
+        x = 42;
+    }
+
+    @Benchmark
+    public int stringCompare() {
+        return stringDispatch.call(x);
+    }
+
+    @Benchmark
+    public int resolved() {
+        return resolvedDispatch.call(x);
+    }
+
+    @Benchmark
+    public int methodHandle() {
+        return handleDispatch.call(x);
+    }
+}
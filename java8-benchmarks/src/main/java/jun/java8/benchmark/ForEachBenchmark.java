@@ -0,0 +1,73 @@
+package jun.java8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Iterable, Map and Stream forEach(), and sequential against parallel forEachOrdered(),
+ * as in java8-forEach-example.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForEachBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private List<Integer> list;
+    private Map<Integer, Integer> map;
+
+    @Setup
+    public void setUp() {
+        list = new Random(42).ints(size).boxed().collect(Collectors.toList());
+        map = new HashMap<>();
+        IntStream.range(0, size).forEach(i -> map.put(i, i));
+    }
+
+    @Benchmark
+    public void iterableForEach(Blackhole blackhole) {
+        list.forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void mapForEach(Blackhole blackhole) {
+        map.forEach((k, v) -> blackhole.consume(v));
+    }
+
+    @Benchmark
+    public void forEachOrderedSequential(Blackhole blackhole) {
+        list.stream().filter(n -> n % 2 == 0).forEachOrdered(blackhole::consume);
+    }
+
+    @Benchmark
+    public void forEachOrderedParallel(Blackhole blackhole, Parallelism parallelism) {
+        parallelism.inPool(() -> list.stream().parallel().filter(n -> n % 2 == 0).forEachOrdered(blackhole::consume));
+    }
+
+    @Benchmark
+    public void forEachParallel(Blackhole blackhole, Parallelism parallelism) {
+        parallelism.inPool(() -> list.stream().parallel().filter(n -> n % 2 == 0).forEach(blackhole::consume));
+    }
+}
@@ -0,0 +1,108 @@
+package jun.java8.benchmark;
+
+import jun.java8.example.IntObjectMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * IntObjectMap against HashMap&lt;Integer, String&gt;, as for the phone book of
+ * java8-lambda-example.
+ * </p>
+ * <p>
+ * Run with -prof gc: the bytes allocated per put operation are the footprint of a
+ * map of size entries, including the tables discarded while it grew.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntObjectMapBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private int[] numbers;
+    private String[] names;
+    private Map<Integer, String> hashMap;
+    private IntObjectMap<String> intObjectMap;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        numbers = random.ints(size).toArray();
+        names = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = Integer.toString(numbers[i]);
+        }
+        hashMap = putHashMap();
+        intObjectMap = putIntObjectMap();
+    }
+
+    @Benchmark
+    public Map<Integer, String> putHashMap() {
+        Map<Integer, String> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(numbers[i], names[i]);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public IntObjectMap<String> putIntObjectMap() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(numbers[i], names[i]);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public long getHashMap() {
+        long length = 0;
+        for (int number : numbers) {
+            length += hashMap.get(number).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public long getIntObjectMap() {
+        long length = 0;
+        for (int number : numbers) {
+            length += intObjectMap.get(number).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public long forEachHashMap() {
+        long[] sum = new long[1];
+        hashMap.forEach((k, v) -> sum[0] += k + v.length());
+        return sum[0];
+    }
+
+    @Benchmark
+    public long forEachIntObjectMap() {
+        long[] sum = new long[1];
+        intObjectMap.forEach((k, v) -> sum[0] += k + v.length());
+        return sum[0];
+    }
+}
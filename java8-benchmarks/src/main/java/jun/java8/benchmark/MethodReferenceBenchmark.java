@@ -0,0 +1,77 @@
+package jun.java8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Method references against the equivalent lambdas, as in java8-method-reference-example.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodReferenceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] numbers;
+    private String[] strings;
+
+    @Setup
+    public void setUp() {
+        numbers = new Random(42).ints(size).boxed().toArray(Integer[]::new);
+        strings = Arrays.stream(numbers).map(Integer::toHexString).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public Optional<Integer> reduceStaticReference() {
+        return Stream.of(numbers).reduce(Math::max);
+    }
+
+    @Benchmark
+    public Optional<Integer> reduceLambda() {
+        return Stream.of(numbers).reduce((a, b) -> Math.max(a, b));
+    }
+
+    @Benchmark
+    public Object[] sortedUnboundReference() {
+        return Stream.of(strings).sorted(String::compareTo).toArray();
+    }
+
+    @Benchmark
+    public Object[] sortedLambda() {
+        return Stream.of(strings).sorted((a, b) -> a.compareTo(b)).toArray();
+    }
+
+    @Benchmark
+    public List<Integer> constructorReference() {
+        return IntStream.range(0, size).boxed().collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Benchmark
+    public List<Integer> constructorLambda() {
+        return IntStream.range(0, size).boxed().collect(Collectors.toCollection(() -> new ArrayList<>()));
+    }
+}
@@ -0,0 +1,65 @@
+package jun.java8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional chains against plain null checks, as in java8-optional-example.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptionalBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private Integer[] values;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        values = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            int value = random.nextInt();
+            values[i] = value % 2 == 0 ? null : value;
+        }
+    }
+
+    @Benchmark
+    public long optionalChain() {
+        long sum = 0;
+        for (Integer value : values) {
+            sum += Optional.ofNullable(value)
+                    .filter(v -> v > 0)
+                    .map(v -> v / 2)
+                    .orElse(10);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long nullCheck() {
+        long sum = 0;
+        for (Integer value : values) {
+            sum += value != null && value > 0 ? value / 2 : 10;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,94 @@
+package jun.java8.benchmark;
+
+import jun.java8.example.PackedOptionalInt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * A lookup returning Optional&lt;Integer&gt; against one returning a PackedOptionalInt,
+ * as in java8-optional-example. Run with -prof gc to compare the bytes allocated per
+ * operation.
+ * </p>
+ * <p>
+ * The *NoEscapeAnalysis variants run in a JVM with -XX:-DoEscapeAnalysis, where no
+ * Optional can be scalar replaced. The find methods are not inlined into the loops
+ * either, as a lookup in another class usually is not, so the Optional escapes even
+ * with escape analysis on.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackedOptionalBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private int[] values;
+
+    @Setup
+    public void setUp() {
+        values = new Random(42).ints(size).toArray();
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private Optional<Integer> find(int index) {
+        int value = values[index];
+        return value % 2 == 0 ? Optional.empty() : Optional.of(value);
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private long findPacked(int index) {
+        int value = values[index];
+        return value % 2 == 0 ? PackedOptionalInt.empty() : PackedOptionalInt.of(value);
+    }
+
+    @Benchmark
+    public long optional() {
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += find(i).filter(v -> v > 0).map(v -> v / 2).orElse(10);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long packed() {
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += PackedOptionalInt.orElse(PackedOptionalInt.map(
+                    PackedOptionalInt.filter(findPacked(i), v -> v > 0), v -> v / 2), 10);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-XX:-DoEscapeAnalysis")
+    public long optionalNoEscapeAnalysis() {
+        return optional();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-XX:-DoEscapeAnalysis")
+    public long packedNoEscapeAnalysis() {
+        return packed();
+    }
+}
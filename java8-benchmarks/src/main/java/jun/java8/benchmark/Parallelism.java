@@ -0,0 +1,50 @@
+package jun.java8.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * The fork/join pool of the benchmarks of parallel streams.
+ * </p>
+ * <p>
+ * A parallel stream runs in the fork/join pool of the thread that starts it, so
+ * running it through inPool() bounds its parallelism by the threads parameter
+ * instead of by the size of the common pool. Only the benchmark methods which take
+ * this state as an argument are run for each value of threads, the sequential
+ * ones of the same class are run once.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class Parallelism {
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUpPool() {
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownPool() {
+        pool.shutdown();
+    }
+
+    public <T> T inPool(Supplier<T> task) {
+        return pool.submit(task::get).join();
+    }
+
+    public void inPool(Runnable task) {
+        pool.submit(task).join();
+    }
+}
@@ -0,0 +1,72 @@
+package jun.java8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Filtering with a Predicate&lt;Integer&gt;, as in java8-predicate-example, against an
+ * IntPredicate on an IntStream, and composed with and() against a single lambda.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredicateBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private int[] values;
+    private Integer[] boxed;
+    private Predicate<Integer> even;
+    private Predicate<Integer> evenAndPositive;
+    private IntPredicate intEven;
+
+    @Setup
+    public void setUp() {
+        values = new Random(42).ints(size, -100, 100).toArray();
+        boxed = IntStream.of(values).boxed().toArray(Integer[]::new);
+        even = x -> x % 2 == 0;
+        Predicate<Integer> positive = x -> x > 0;
+        evenAndPositive = even.and(positive);
+        intEven = x -> x % 2 == 0;
+    }
+
+    @Benchmark
+    public long predicate() {
+        return Stream.of(boxed).filter(even).count();
+    }
+
+    @Benchmark
+    public long intPredicate() {
+        return IntStream.of(values).filter(intEven).count();
+    }
+
+    @Benchmark
+    public long composedPredicate() {
+        return Stream.of(boxed).filter(evenAndPositive).count();
+    }
+
+    @Benchmark
+    public long singlePredicate() {
+        return Stream.of(boxed).filter(x -> x % 2 == 0 && x > 0).count();
+    }
+}
@@ -0,0 +1,103 @@
+package jun.java8.benchmark;
+
+import jun.java8.example.Specializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * reduce(Math::max) and sorted(String::compareTo) through the shared loops of the
+ * streams API against the loops cloned by Specializer, as in
+ * java8-method-reference-example.
+ * </p>
+ * <p>
+ * With polluted=true the setup first runs the same loops with other operators and
+ * comparators, as the rest of an application would, until they are compiled with
+ * megamorphic call sites. Each value of polluted runs in its own fork.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfilePollutionBenchmark {
+
+    private static final List<BinaryOperator<Integer>> OPERATORS = Arrays.asList(
+            Integer::sum, Math::min, (a, b) -> a ^ b, (a, b) -> b);
+    private static final List<Comparator<String>> COMPARATORS = Arrays.asList(
+            Comparator.reverseOrder(), Comparator.comparingInt(String::length), String::compareToIgnoreCase);
+
+    @Param({"false", "true"})
+    public boolean polluted;
+
+    @Param({"100000"})
+    public int size;
+
+    private Integer[] numbers;
+    private String[] strings;
+    private Specializer.Reducer<Integer> max;
+    private Specializer.Sorter<String> compareTo;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        numbers = random.ints(size).boxed().toArray(Integer[]::new);
+        strings = Arrays.stream(numbers).map(Integer::toHexString).toArray(String[]::new);
+        max = Specializer.reducer(Math::max);
+        compareTo = Specializer.sorter(String::compareTo);
+        if (polluted) {
+            for (int i = 0; i < 20; i++) {
+                for (BinaryOperator<Integer> operator : OPERATORS) {
+                    Stream.of(numbers).reduce(operator);
+                    Specializer.reducer(operator).reduce(numbers);
+                }
+                for (Comparator<String> comparator : COMPARATORS) {
+                    Stream.of(strings).sorted(comparator).toArray();
+                    Specializer.sorter(comparator).sort(strings.clone());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<Integer> reduceStream() {
+        return Stream.of(numbers).reduce(Math::max);
+    }
+
+    @Benchmark
+    public Optional<Integer> reduceSpecialized() {
+        return max.reduce(numbers);
+    }
+
+    @Benchmark
+    public Object[] sortedStream() {
+        return Stream.of(strings).sorted(String::compareTo).toArray();
+    }
+
+    @Benchmark
+    public String[] sortedSpecialized() {
+        String[] sorted = strings.clone();
+        compareTo.sort(sorted);
+        return sorted;
+    }
+}
@@ -0,0 +1,91 @@
+package jun.java8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Pattern.asPredicate() against a reused Matcher, as in java8-regex-example.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegexBenchmark {
+
+    private static final String REGEX = "^(177|133|139|186)\\d{8}$";
+    private static final String[] PREFIXES = {"177", "133", "139", "186", "188"};
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private String[] numbers;
+    private Pattern pattern;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        numbers = new String[size];
+        for (int i = 0; i < size; i++) {
+            numbers[i] = PREFIXES[random.nextInt(PREFIXES.length)] + String.format("%08d", random.nextInt(100_000_000));
+        }
+        pattern = Pattern.compile(REGEX);
+    }
+
+    @Benchmark
+    public long asPredicate() {
+        Predicate<String> filter = pattern.asPredicate();
+        return Stream.of(numbers).filter(filter).count();
+    }
+
+    @Benchmark
+    public long matcher() {
+        long count = 0;
+        for (String number : numbers) {
+            if (pattern.matcher(number).matches()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long reusedMatcher() {
+        long count = 0;
+        Matcher matcher = pattern.matcher("");
+        for (String number : numbers) {
+            if (matcher.reset(number).matches()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long stringMatches() {
+        long count = 0;
+        for (String number : numbers) {
+            if (number.matches(REGEX)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,72 @@
+package jun.java8.benchmark;
+
+import jun.java8.example.SizedCollectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Collecting a range with Collectors.toCollection(ArrayList::new) against
+ * SizedCollectors, as in referenceConstructor() of java8-method-reference-example.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SizedCollectorsBenchmark {
+
+    @Param({"10000000"})
+    public int size;
+
+    @Benchmark
+    public List<Integer> toCollection() {
+        return IntStream.range(0, size).boxed().collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Benchmark
+    public List<Integer> toCollectionParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> IntStream.range(0, size).parallel().boxed()
+                .collect(Collectors.toCollection(ArrayList::new)));
+    }
+
+    @Benchmark
+    public List<Integer> sizedToCollection() {
+        return SizedCollectors.toCollection(IntStream.range(0, size).boxed(), ArrayList::new);
+    }
+
+    @Benchmark
+    public List<Integer> sizedToCollectionParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> SizedCollectors.toCollection(IntStream.range(0, size).parallel().boxed(),
+                ArrayList::new));
+    }
+
+    @Benchmark
+    public List<Integer> sizedToListParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> SizedCollectors.toList(IntStream.range(0, size).parallel().boxed()));
+    }
+
+    @Benchmark
+    public List<Integer> toIntList() {
+        return SizedCollectors.toIntList(IntStream.range(0, size));
+    }
+
+    @Benchmark
+    public List<Integer> toIntListParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> SizedCollectors.toIntList(IntStream.range(0, size).parallel()));
+    }
+}
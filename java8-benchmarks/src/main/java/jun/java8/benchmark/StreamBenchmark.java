@@ -0,0 +1,129 @@
+package jun.java8.benchmark;
+
+import jun.java8.example.ExternalSort;
+import jun.java8.example.FusedIntPipeline;
+import jun.java8.example.RandomStreams;
+import jun.java8.example.Rope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The filter, map, sorted, reduce and generate pipelines of java8-stream-example,
+ * against FusedIntPipeline, ExternalSort, Rope and RandomStreams.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private int[] values;
+    private Integer[] boxed;
+    private String[] strings;
+    private ExternalSort<Integer> externalSort;
+
+    @Setup
+    public void setUp() {
+        values = new Random(42).ints(size, 0, 100).toArray();
+        boxed = IntStream.of(values).boxed().toArray(Integer[]::new);
+        strings = IntStream.of(values).mapToObj(Integer::toString).toArray(String[]::new);
+        // Spills sorted runs of 256K elements, so the larger size merges four runs from disk.
+        externalSort = new ExternalSort<>(Comparator.<Integer>reverseOrder(), ExternalSort.INTEGER_CODEC)
+                .setSpillThreshold(256 * 1024);
+    }
+
+    @Benchmark
+    public Integer[] filterMapBoxed() {
+        return Stream.of(boxed).filter(n -> n % 2 == 0).map(n -> n + 10).toArray(Integer[]::new);
+    }
+
+    @Benchmark
+    public Integer[] filterMapBoxedParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> Stream.of(boxed).parallel().filter(n -> n % 2 == 0).map(n -> n + 10)
+                .toArray(Integer[]::new));
+    }
+
+    @Benchmark
+    public int[] filterMapIntStream() {
+        return IntStream.of(values).filter(n -> n % 2 == 0).map(n -> n + 10).toArray();
+    }
+
+    @Benchmark
+    public int[] filterMapFused() {
+        return FusedIntPipeline.of(values).filter(n -> n % 2 == 0).map(n -> n + 10).toArray();
+    }
+
+    @Benchmark
+    public Object[] sorted() {
+        return Stream.of(boxed).sorted(Comparator.reverseOrder()).toArray();
+    }
+
+    @Benchmark
+    public Object[] sortedParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> Stream.of(boxed).parallel().sorted(Comparator.reverseOrder()).toArray());
+    }
+
+    @Benchmark
+    public Object[] externalSort() {
+        try (Stream<Integer> sorted = externalSort.sort(Stream.of(boxed))) {
+            return sorted.toArray();
+        }
+    }
+
+    @Benchmark
+    public int reduceRope() {
+        return Stream.of(strings).map(Rope::of).reduce(Rope.EMPTY, Rope::concat).toString().length();
+    }
+
+    @Benchmark
+    public int reduceRopeParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> Stream.of(strings).parallel().map(Rope::of).reduce(Rope.EMPTY, Rope::concat)
+                .toString().length());
+    }
+
+    @Benchmark
+    public long generateRandom() {
+        return Stream.generate(() -> new Random().nextInt(100)).limit(size).mapToLong(n -> n).sum();
+    }
+
+    @Benchmark
+    public long generateRandomParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> Stream.generate(() -> new Random().nextInt(100)).parallel().limit(size)
+                .mapToLong(n -> n).sum());
+    }
+
+    @Benchmark
+    public long randomStreams() {
+        return RandomStreams.ints(size, 100).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long randomStreamsParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> RandomStreams.ints(size, 100).parallel().asLongStream().sum());
+    }
+
+    @Benchmark
+    public long seededRandomStreamsParallel(Parallelism parallelism) {
+        return parallelism.inPool(() -> RandomStreams.ints(size, 100, 42).parallel().asLongStream().sum());
+    }
+}
@@ -20,6 +20,7 @@ public class Application {
         intStream();
         longStream();
         doubleStream();
+        offHeapStream();
     }
 
     private static void boxedStream() {
@@ -54,11 +55,20 @@ public class Application {
                 .collect(Collectors.toList());
         logger.info(ints);
 
+        // Collect the primitives into a primitive-backed list, without boxing
+        IntList intList = IntStream.of(1, 2, 3, 4, 5)
+                .collect(IntList::new, IntList::add, IntList::addAll);
+        logger.info(intList);
+
         // Stream operations directly
         Optional<Integer> max = IntStream.of(1, 2, 3, 4, 5)
                 .boxed() // box the elements in their wrapper classes
                 .max(Integer::compareTo);
         logger.info(max);
+
+        // Compute max and the other statistics without boxing
+        LongStatistics statistics = LongStatistics.of(new int[]{1, 2, 3, 4, 5});
+        logger.info(statistics);
     }
 
     private static void longStream() {
@@ -71,6 +81,11 @@ public class Application {
                 .collect(Collectors.toList());
         logger.info(ints);
 
+        // Collect the primitives into a primitive-backed list, without boxing
+        LongList longList = LongStream.of(1, 2, 3, 4, 5)
+                .collect(LongList::new, LongList::add, LongList::addAll);
+        logger.info(longList);
+
         // Stream operations directly
         Optional<Long> max = LongStream.of(1, 2, 3, 4, 5)
                 .boxed() // box the elements in their wrapper classes
@@ -88,10 +103,33 @@ public class Application {
                 .collect(Collectors.toList());
         logger.info(ints);
 
+        // Collect the primitives into a primitive-backed list, without boxing
+        DoubleList doubleList = DoubleStream.of(1, 2, 3, 4, 5)
+                .collect(DoubleList::new, DoubleList::add, DoubleList::addAll);
+        logger.info(doubleList);
+
         // Stream operations directly
         Optional<Double> max = DoubleStream.of(1, 2, 3, 4, 5)
                 .boxed() // box the elements in their wrapper classes
                 .max(Double::compareTo);
         logger.info(max);
+
+        // Compute max and the other statistics without boxing
+        DoubleStatistics statistics = DoubleStream.of(1, 2, 3, 4, 5)
+                .collect(DoubleStatistics::new, DoubleStatistics::accept, DoubleStatistics::combine);
+        logger.info(statistics);
+    }
+
+    private static void offHeapStream() {
+
+        logger.info("off-heap stream: -------------------");
+
+        // Keep the values outside the heap and stream over them without boxing
+        try (OffHeapColumn.OfLong column = OffHeapColumn.ofLongs(5)) {
+            for (int i = 0; i < column.length(); i++) {
+                column.set(i, i + 1);
+            }
+            logger.info(column.stream().parallel().max());
+        }
     }
 }
@@ -0,0 +1,157 @@
+package jun.java8.example;
+
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+
+/**
+ * <p>
+ * A growable list of double values, backed by a double[] array.
+ * </p>
+ * <p>
+ * Doubles are never cached by Double.valueOf(), so every element of
+ * <code>DoubleStream.boxed().collect(Collectors.toList())</code> is an allocation of
+ * its own. A DoubleList is filled from the DoubleStream without boxing, in parallel too:
+ * </p>
+ * <pre>
+ * DoubleList list = DoubleStream.of(1, 2, 3).collect(DoubleList::new, DoubleList::add, DoubleList::addAll);
+ * </pre>
+ * <p>
+ * Like Double.equals(), equals() compares the bits of the values, so NaN equals NaN
+ * and 0.0 does not equal -0.0. stream() reads the array without copying it.
+ * </p>
+ */
+public class DoubleList {
+
+    private static final double[] EMPTY = {};
+
+    private double[] elements;
+    private int size;
+
+    public DoubleList() {
+        this.elements = EMPTY;
+    }
+
+    public DoubleList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        }
+        this.elements = initialCapacity == 0 ? EMPTY : new double[initialCapacity];
+    }
+
+    public static DoubleList of(double... values) {
+        DoubleList list = new DoubleList(values.length);
+        System.arraycopy(values, 0, list.elements, 0, values.length);
+        list.size = values.length;
+        return list;
+    }
+
+    public void add(double value) {
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size++] = value;
+    }
+
+    public void addAll(DoubleList other) {
+        if (size + other.size > elements.length) {
+            grow(size + other.size);
+        }
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    public double get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public double set(int index, double value) {
+        checkIndex(index);
+        double previous = elements[index];
+        elements[index] = value;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * A sequential stream over the elements, backed by the array of this list.
+     * The list must not be modified while the stream is in use.
+     */
+    public DoubleStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    public double[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    private void grow(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError();
+        }
+        int capacity = elements.length + (elements.length >> 1);
+        if (capacity < 0) {
+            capacity = Integer.MAX_VALUE - 8;
+        }
+        capacity = Math.max(Math.max(10, minCapacity), capacity);
+        elements = Arrays.copyOf(elements, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DoubleList)) {
+            return false;
+        }
+        DoubleList other = (DoubleList) o;
+        if (size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (Double.doubleToLongBits(elements[i]) != Double.doubleToLongBits(other.elements[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + Double.hashCode(elements[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(elements[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,260 @@
+package jun.java8.example;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleConsumer;
+
+/**
+ * <p>
+ * Count, min, max, sum, mean and variance of double values, in one pass.
+ * </p>
+ * <p>
+ * Unlike DoubleSummaryStatistics it also tracks the variance (Welford's algorithm,
+ * merged with Chan's formula) and keeps the sum with Kahan compensation. It can be
+ * used as the container of <code>DoubleStream.collect()</code>, where combine() merges
+ * the per-thread results in place:
+ * </p>
+ * <pre>
+ * DoubleStatistics stats = doubleStream.collect(DoubleStatistics::new, DoubleStatistics::accept, DoubleStatistics::combine);
+ * </pre>
+ * <p>
+ * For arrays, of() splits the array over the fork/join common pool. Each leaf is
+ * summarized with two short unrolled loops over a block that stays in cache, which
+ * the JIT can vectorize, so no element is boxed or visited through a lambda.
+ * </p>
+ */
+public class DoubleStatistics implements DoubleConsumer {
+
+    private static final int LEAF_SIZE = 1 << 13;
+
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;
+    private double compensation;
+    // The uncompensated sum, which is the right answer when an infinite value turns
+    // the compensation into NaN.
+    private double simpleSum;
+    private double mean;
+    private double m2;
+
+    public static DoubleStatistics of(double[] values) {
+        return of(values, 0, values.length);
+    }
+
+    public static DoubleStatistics of(double[] values, int from, int to) {
+        if (from < 0 || to > values.length || from > to) {
+            throw new ArrayIndexOutOfBoundsException("from: " + from + ", to: " + to);
+        }
+        if (to - from <= LEAF_SIZE) {
+            return block(values, from, to);
+        }
+        return ForkJoinPool.commonPool().invoke(new Task(values, from, to));
+    }
+
+    @Override
+    public void accept(double value) {
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        addToSum(value);
+        simpleSum += value;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Merge the statistics of other into this one.
+     */
+    public void combine(DoubleStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            min = other.min;
+            max = other.max;
+            sum = other.sum;
+            compensation = other.compensation;
+            simpleSum = other.simpleSum;
+            mean = other.mean;
+            m2 = other.m2;
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count / total * other.count;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        addToSum(other.sum);
+        addToSum(-other.compensation);
+        simpleSum += other.simpleSum;
+    }
+
+    private void addToSum(double value) {
+        double y = value - compensation;
+        double t = sum + y;
+        compensation = (t - sum) - y;
+        sum = t;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getSum() {
+        double compensated = sum - compensation;
+        if (Double.isNaN(compensated) && Double.isInfinite(simpleSum)) {
+            return simpleSum;
+        }
+        return compensated;
+    }
+
+    public double getAverage() {
+        return count > 0 ? mean : 0.0;
+    }
+
+    /**
+     * The population variance.
+     */
+    public double getVariance() {
+        return count > 0 ? m2 / count : 0.0;
+    }
+
+    public double getSampleVariance() {
+        return count > 1 ? m2 / (count - 1) : 0.0;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Summarize one block with a pass for min, max and the Kahan sum and a pass for
+     * the squared deviations, both over four independent lanes.
+     */
+    private static DoubleStatistics block(double[] values, int from, int to) {
+        DoubleStatistics stats = new DoubleStatistics();
+        int n = to - from;
+        if (n == 0) {
+            return stats;
+        }
+        double min0 = Double.POSITIVE_INFINITY, min1 = min0, min2 = min0, min3 = min0;
+        double max0 = Double.NEGATIVE_INFINITY, max1 = max0, max2 = max0, max3 = max0;
+        double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+        double c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            double v0 = values[i], v1 = values[i + 1], v2 = values[i + 2], v3 = values[i + 3];
+            min0 = Math.min(min0, v0);
+            min1 = Math.min(min1, v1);
+            min2 = Math.min(min2, v2);
+            min3 = Math.min(min3, v3);
+            max0 = Math.max(max0, v0);
+            max1 = Math.max(max1, v1);
+            max2 = Math.max(max2, v2);
+            max3 = Math.max(max3, v3);
+            double y0 = v0 - c0, t0 = sum0 + y0;
+            c0 = (t0 - sum0) - y0;
+            sum0 = t0;
+            double y1 = v1 - c1, t1 = sum1 + y1;
+            c1 = (t1 - sum1) - y1;
+            sum1 = t1;
+            double y2 = v2 - c2, t2 = sum2 + y2;
+            c2 = (t2 - sum2) - y2;
+            sum2 = t2;
+            double y3 = v3 - c3, t3 = sum3 + y3;
+            c3 = (t3 - sum3) - y3;
+            sum3 = t3;
+            s0 += v0;
+            s1 += v1;
+            s2 += v2;
+            s3 += v3;
+        }
+        for (; i < to; i++) {
+            double v = values[i];
+            min0 = Math.min(min0, v);
+            max0 = Math.max(max0, v);
+            double y = v - c0, t = sum0 + y;
+            c0 = (t - sum0) - y;
+            sum0 = t;
+            s0 += v;
+        }
+        stats.count = n;
+        stats.min = Math.min(Math.min(min0, min1), Math.min(min2, min3));
+        stats.max = Math.max(Math.max(max0, max1), Math.max(max2, max3));
+        stats.addToSum(sum0);
+        stats.addToSum(-c0);
+        stats.addToSum(sum1);
+        stats.addToSum(-c1);
+        stats.addToSum(sum2);
+        stats.addToSum(-c2);
+        stats.addToSum(sum3);
+        stats.addToSum(-c3);
+        stats.simpleSum = (s0 + s1) + (s2 + s3);
+        double mean = stats.getSum() / n;
+
+        double m0 = 0, m1 = 0, m2 = 0, m3 = 0;
+        i = from;
+        for (; i + 3 < to; i += 4) {
+            double d0 = values[i] - mean, d1 = values[i + 1] - mean;
+            double d2 = values[i + 2] - mean, d3 = values[i + 3] - mean;
+            m0 += d0 * d0;
+            m1 += d1 * d1;
+            m2 += d2 * d2;
+            m3 += d3 * d3;
+        }
+        for (; i < to; i++) {
+            double d = values[i] - mean;
+            m0 += d * d;
+        }
+        stats.mean = mean;
+        stats.m2 = (m0 + m1) + (m2 + m3);
+        return stats;
+    }
+
+    private static final class Task extends RecursiveTask<DoubleStatistics> {
+
+        private final double[] values;
+        private final int from;
+        private final int to;
+
+        Task(double[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected DoubleStatistics compute() {
+            if (to - from <= LEAF_SIZE) {
+                return block(values, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            Task left = new Task(values, from, mid);
+            left.fork();
+            DoubleStatistics right = new Task(values, mid, to).compute();
+            DoubleStatistics result = left.join();
+            result.combine(right);
+            return result;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{count=%d, sum=%f, min=%f, average=%f, max=%f, variance=%f}",
+                getClass().getSimpleName(), getCount(), getSum(), getMin(), getAverage(), getMax(), getVariance());
+    }
+}
@@ -0,0 +1,337 @@
+package jun.java8.example;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * <p>
+ * Count, min, max, sum, mean and variance of int or long values, in one pass.
+ * </p>
+ * <p>
+ * Unlike LongSummaryStatistics it also tracks the variance (Welford's algorithm,
+ * merged with Chan's formula). It can be used as the container of
+ * <code>IntStream.collect()</code> or <code>LongStream.collect()</code>, where
+ * combine() merges the per-thread results in place:
+ * </p>
+ * <pre>
+ * LongStatistics stats = intStream.collect(LongStatistics::new, LongStatistics::accept, LongStatistics::combine);
+ * </pre>
+ * <p>
+ * For arrays, of() splits the array over the fork/join common pool. Each leaf is
+ * summarized with two short unrolled loops over a block that stays in cache, which
+ * the JIT can vectorize, so no element is boxed or visited through a lambda.
+ * As with LongSummaryStatistics, the sum overflows silently. The average and the
+ * variance are computed in double and do not depend on it.
+ * </p>
+ */
+public class LongStatistics implements IntConsumer, LongConsumer {
+
+    private static final int LEAF_SIZE = 1 << 13;
+
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private long sum;
+    private double mean;
+    private double m2;
+
+    public static LongStatistics of(int[] values) {
+        return of(values, 0, values.length);
+    }
+
+    public static LongStatistics of(int[] values, int from, int to) {
+        if (from < 0 || to > values.length || from > to) {
+            throw new ArrayIndexOutOfBoundsException("from: " + from + ", to: " + to);
+        }
+        if (to - from <= LEAF_SIZE) {
+            return block(values, from, to);
+        }
+        return ForkJoinPool.commonPool().invoke(new IntTask(values, from, to));
+    }
+
+    public static LongStatistics of(long[] values) {
+        return of(values, 0, values.length);
+    }
+
+    public static LongStatistics of(long[] values, int from, int to) {
+        if (from < 0 || to > values.length || from > to) {
+            throw new ArrayIndexOutOfBoundsException("from: " + from + ", to: " + to);
+        }
+        if (to - from <= LEAF_SIZE) {
+            return block(values, from, to);
+        }
+        return ForkJoinPool.commonPool().invoke(new LongTask(values, from, to));
+    }
+
+    @Override
+    public void accept(int value) {
+        accept((long) value);
+    }
+
+    @Override
+    public void accept(long value) {
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sum += value;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Merge the statistics of other into this one.
+     */
+    public void combine(LongStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            min = other.min;
+            max = other.max;
+            sum = other.sum;
+            mean = other.mean;
+            m2 = other.m2;
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count / total * other.count;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sum += other.sum;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public double getAverage() {
+        return count > 0 ? mean : 0.0;
+    }
+
+    /**
+     * The population variance.
+     */
+    public double getVariance() {
+        return count > 0 ? m2 / count : 0.0;
+    }
+
+    public double getSampleVariance() {
+        return count > 1 ? m2 / (count - 1) : 0.0;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Summarize one block with a pass for min, max and sum and a pass for the
+     * squared deviations, both over four independent lanes.
+     */
+    private static LongStatistics block(int[] values, int from, int to) {
+        LongStatistics stats = new LongStatistics();
+        int n = to - from;
+        if (n == 0) {
+            return stats;
+        }
+        long min0 = Long.MAX_VALUE, min1 = min0, min2 = min0, min3 = min0;
+        long max0 = Long.MIN_VALUE, max1 = max0, max2 = max0, max3 = max0;
+        long sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            long v0 = values[i], v1 = values[i + 1], v2 = values[i + 2], v3 = values[i + 3];
+            min0 = Math.min(min0, v0);
+            min1 = Math.min(min1, v1);
+            min2 = Math.min(min2, v2);
+            min3 = Math.min(min3, v3);
+            max0 = Math.max(max0, v0);
+            max1 = Math.max(max1, v1);
+            max2 = Math.max(max2, v2);
+            max3 = Math.max(max3, v3);
+            sum0 += v0;
+            sum1 += v1;
+            sum2 += v2;
+            sum3 += v3;
+        }
+        for (; i < to; i++) {
+            long v = values[i];
+            min0 = Math.min(min0, v);
+            max0 = Math.max(max0, v);
+            sum0 += v;
+        }
+        stats.count = n;
+        stats.min = Math.min(Math.min(min0, min1), Math.min(min2, min3));
+        stats.max = Math.max(Math.max(max0, max1), Math.max(max2, max3));
+        stats.sum = (sum0 + sum1) + (sum2 + sum3);
+        // A block holds at most LEAF_SIZE ints, whose long sum cannot overflow.
+        double mean = (double) stats.sum / n;
+
+        double m0 = 0, m1 = 0, m2 = 0, m3 = 0;
+        i = from;
+        for (; i + 3 < to; i += 4) {
+            double d0 = values[i] - mean, d1 = values[i + 1] - mean;
+            double d2 = values[i + 2] - mean, d3 = values[i + 3] - mean;
+            m0 += d0 * d0;
+            m1 += d1 * d1;
+            m2 += d2 * d2;
+            m3 += d3 * d3;
+        }
+        for (; i < to; i++) {
+            double d = values[i] - mean;
+            m0 += d * d;
+        }
+        stats.mean = mean;
+        stats.m2 = (m0 + m1) + (m2 + m3);
+        return stats;
+    }
+
+    /**
+     * Summarize one block with a pass for min, max and sum and a pass for the
+     * squared deviations, both over four independent lanes.
+     */
+    private static LongStatistics block(long[] values, int from, int to) {
+        LongStatistics stats = new LongStatistics();
+        int n = to - from;
+        if (n == 0) {
+            return stats;
+        }
+        long min0 = Long.MAX_VALUE, min1 = min0, min2 = min0, min3 = min0;
+        long max0 = Long.MIN_VALUE, max1 = max0, max2 = max0, max3 = max0;
+        long sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+        // The long sum may overflow, the mean is estimated from a sum in double.
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            long v0 = values[i], v1 = values[i + 1], v2 = values[i + 2], v3 = values[i + 3];
+            min0 = Math.min(min0, v0);
+            min1 = Math.min(min1, v1);
+            min2 = Math.min(min2, v2);
+            min3 = Math.min(min3, v3);
+            max0 = Math.max(max0, v0);
+            max1 = Math.max(max1, v1);
+            max2 = Math.max(max2, v2);
+            max3 = Math.max(max3, v3);
+            sum0 += v0;
+            sum1 += v1;
+            sum2 += v2;
+            sum3 += v3;
+            s0 += v0;
+            s1 += v1;
+            s2 += v2;
+            s3 += v3;
+        }
+        for (; i < to; i++) {
+            long v = values[i];
+            min0 = Math.min(min0, v);
+            max0 = Math.max(max0, v);
+            sum0 += v;
+            s0 += v;
+        }
+        stats.count = n;
+        stats.min = Math.min(Math.min(min0, min1), Math.min(min2, min3));
+        stats.max = Math.max(Math.max(max0, max1), Math.max(max2, max3));
+        stats.sum = (sum0 + sum1) + (sum2 + sum3);
+        double mean = ((s0 + s1) + (s2 + s3)) / n;
+
+        // The corrected two-pass algorithm: the sum of the deviations from the
+        // estimated mean corrects both the mean and the sum of their squares.
+        double m0 = 0, m1 = 0, m2 = 0, m3 = 0;
+        double d = 0;
+        i = from;
+        for (; i + 3 < to; i += 4) {
+            double d0 = values[i] - mean, d1 = values[i + 1] - mean;
+            double d2 = values[i + 2] - mean, d3 = values[i + 3] - mean;
+            m0 += d0 * d0;
+            m1 += d1 * d1;
+            m2 += d2 * d2;
+            m3 += d3 * d3;
+            d += (d0 + d1) + (d2 + d3);
+        }
+        for (; i < to; i++) {
+            double d0 = values[i] - mean;
+            m0 += d0 * d0;
+            d += d0;
+        }
+        stats.mean = mean + d / n;
+        stats.m2 = Math.max(0.0, (m0 + m1) + (m2 + m3) - d * d / n);
+        return stats;
+    }
+
+    private static final class IntTask extends RecursiveTask<LongStatistics> {
+
+        private final int[] values;
+        private final int from;
+        private final int to;
+
+        IntTask(int[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongStatistics compute() {
+            if (to - from <= LEAF_SIZE) {
+                return block(values, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            IntTask left = new IntTask(values, from, mid);
+            left.fork();
+            LongStatistics right = new IntTask(values, mid, to).compute();
+            LongStatistics result = left.join();
+            result.combine(right);
+            return result;
+        }
+    }
+
+    private static final class LongTask extends RecursiveTask<LongStatistics> {
+
+        private final long[] values;
+        private final int from;
+        private final int to;
+
+        LongTask(long[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongStatistics compute() {
+            if (to - from <= LEAF_SIZE) {
+                return block(values, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            LongTask left = new LongTask(values, from, mid);
+            left.fork();
+            LongStatistics right = new LongTask(values, mid, to).compute();
+            LongStatistics result = left.join();
+            result.combine(right);
+            return result;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{count=%d, sum=%d, min=%d, average=%f, max=%d, variance=%f}",
+                getClass().getSimpleName(), getCount(), getSum(), getMin(), getAverage(), getMax(), getVariance());
+    }
+}
@@ -0,0 +1,467 @@
+package jun.java8.example;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ * A fixed length column of primitive values stored outside the Java heap.
+ * </p>
+ * <p>
+ * Hundreds of millions of values in a long[] or double[] are scanned by every full GC.
+ * A column keeps its values in direct ByteBuffers instead, split into segments of 1GB
+ * since a single buffer is limited to 2GB, so the values cost the garbage collector
+ * nothing. The memory is released by close() rather than by the collector.
+ * </p>
+ * <p>
+ * stream() exposes the values as an IntStream, LongStream or DoubleStream over a
+ * SIZED and SUBSIZED spliterator which splits evenly, so parallel() pipelines
+ * run over the column without copying or boxing anything.
+ * </p>
+ * <p>
+ * get(), set() and the spliterators count themselves as users of the memory while
+ * they read or write it, and the memory is freed by the last user after close(), so
+ * closing a column while another thread streams over it never frees memory which is
+ * still being read. An access which starts after close() throws IllegalStateException,
+ * so a parallel stream which is running when the column is closed may fail in the
+ * splits it has not started yet.
+ * </p>
+ */
+public abstract class OffHeapColumn implements AutoCloseable {
+
+    private static final int SEGMENT_SHIFT = 30;
+
+    private final long length;
+    private final int indexShift;
+    private final long indexMask;
+    private final int elementShift;
+    private final ByteBuffer[] segments;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // The column itself and every access in progress.
+    private final AtomicInteger users = new AtomicInteger(1);
+
+    private OffHeapColumn(long length, int elementShift) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative: " + length);
+        }
+        this.length = length;
+        this.elementShift = elementShift;
+        this.indexShift = SEGMENT_SHIFT - elementShift;
+        this.indexMask = (1L << indexShift) - 1;
+        int count = (int) ((length + indexMask) >>> indexShift);
+        this.segments = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long elements = Math.min(length - ((long) i << indexShift), 1L << indexShift);
+            segments[i] = ByteBuffer.allocateDirect((int) (elements << elementShift)).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    public static OfInt ofInts(long length) {
+        return new OfInt(length);
+    }
+
+    public static OfLong ofLongs(long length) {
+        return new OfLong(length);
+    }
+
+    public static OfDouble ofDoubles(long length) {
+        return new OfDouble(length);
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Release the off-heap memory of the column, at once or when the last access in
+     * progress ends.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    /**
+     * Count one more user of the memory, which must call release() when done.
+     */
+    ByteBuffer[] acquire() {
+        while (true) {
+            int current = users.get();
+            if (current == 0 || closed.get()) {
+                throw new IllegalStateException("column is closed");
+            }
+            if (users.compareAndSet(current, current + 1)) {
+                return segments;
+            }
+        }
+    }
+
+    void release() {
+        if (users.decrementAndGet() == 0) {
+            for (ByteBuffer segment : segments) {
+                free(segment);
+            }
+        }
+    }
+
+    ByteBuffer segment(ByteBuffer[] segments, long index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length);
+        }
+        return segments[(int) (index >>> indexShift)];
+    }
+
+    int offset(long index) {
+        return (int) (index & indexMask) << elementShift;
+    }
+
+    /**
+     * Free a direct buffer now instead of when it is garbage collected, through the
+     * buffer's cleaner on Java 8 and through Unsafe.invokeCleaner() on Java 9 and later.
+     * If neither is accessible the memory is freed by the garbage collector.
+     */
+    private static void free(ByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (NoSuchMethodException ex) {
+            try {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                // left to the garbage collector
+            }
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // left to the garbage collector
+        }
+    }
+
+    /**
+     * The range [index, fence) of a column, split in halves.
+     */
+    private abstract static class ColumnSpliterator<T, C, S extends Spliterator.OfPrimitive<T, C, S>>
+            implements Spliterator.OfPrimitive<T, C, S> {
+
+        final OffHeapColumn column;
+        long index;
+        final long fence;
+
+        ColumnSpliterator(OffHeapColumn column, long index, long fence) {
+            this.column = column;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        abstract S split(long from, long to);
+
+        @Override
+        public S trySplit() {
+            long mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            S prefix = split(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
+    public static final class OfInt extends OffHeapColumn {
+
+        private OfInt(long length) {
+            super(length, 2);
+        }
+
+        public int get(long index) {
+            ByteBuffer[] segments = acquire();
+            try {
+                return segment(segments, index).getInt(offset(index));
+            } finally {
+                release();
+            }
+        }
+
+        public void set(long index, int value) {
+            ByteBuffer[] segments = acquire();
+            try {
+                segment(segments, index).putInt(offset(index), value);
+            } finally {
+                release();
+            }
+        }
+
+        public Spliterator.OfInt spliterator() {
+            return new OfIntSpliterator(this, 0, length());
+        }
+
+        public IntStream stream() {
+            return StreamSupport.intStream(spliterator(), false);
+        }
+    }
+
+    private static final class OfIntSpliterator
+            extends ColumnSpliterator<Integer, IntConsumer, Spliterator.OfInt>
+            implements Spliterator.OfInt {
+
+        OfIntSpliterator(OffHeapColumn column, long index, long fence) {
+            super(column, index, fence);
+        }
+
+        @Override
+        Spliterator.OfInt split(long from, long to) {
+            return new OfIntSpliterator(column, from, to);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            ByteBuffer[] segments = column.acquire();
+            int value;
+            try {
+                value = column.segment(segments, index).getInt(column.offset(index));
+            } finally {
+                column.release();
+            }
+            index++;
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            long i = index;
+            if (i >= fence) {
+                return;
+            }
+            index = fence;
+            ByteBuffer[] segments = column.acquire();
+            try {
+                // Walk segment by segment so the inner loop only reads one buffer.
+                while (i < fence) {
+                    ByteBuffer segment = segments[(int) (i >>> column.indexShift)];
+                    long segmentEnd = Math.min(fence, (i | column.indexMask) + 1);
+                    int end = column.offset(segmentEnd - 1) + 4;
+                    for (int offset = column.offset(i); offset < end; offset += 4) {
+                        action.accept(segment.getInt(offset));
+                    }
+                    i = segmentEnd;
+                }
+            } finally {
+                column.release();
+            }
+        }
+    }
+
+    public static final class OfLong extends OffHeapColumn {
+
+        private OfLong(long length) {
+            super(length, 3);
+        }
+
+        public long get(long index) {
+            ByteBuffer[] segments = acquire();
+            try {
+                return segment(segments, index).getLong(offset(index));
+            } finally {
+                release();
+            }
+        }
+
+        public void set(long index, long value) {
+            ByteBuffer[] segments = acquire();
+            try {
+                segment(segments, index).putLong(offset(index), value);
+            } finally {
+                release();
+            }
+        }
+
+        public Spliterator.OfLong spliterator() {
+            return new OfLongSpliterator(this, 0, length());
+        }
+
+        public LongStream stream() {
+            return StreamSupport.longStream(spliterator(), false);
+        }
+    }
+
+    private static final class OfLongSpliterator
+            extends ColumnSpliterator<Long, LongConsumer, Spliterator.OfLong>
+            implements Spliterator.OfLong {
+
+        OfLongSpliterator(OffHeapColumn column, long index, long fence) {
+            super(column, index, fence);
+        }
+
+        @Override
+        Spliterator.OfLong split(long from, long to) {
+            return new OfLongSpliterator(column, from, to);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            ByteBuffer[] segments = column.acquire();
+            long value;
+            try {
+                value = column.segment(segments, index).getLong(column.offset(index));
+            } finally {
+                column.release();
+            }
+            index++;
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            long i = index;
+            if (i >= fence) {
+                return;
+            }
+            index = fence;
+            ByteBuffer[] segments = column.acquire();
+            try {
+                // Walk segment by segment so the inner loop only reads one buffer.
+                while (i < fence) {
+                    ByteBuffer segment = segments[(int) (i >>> column.indexShift)];
+                    long segmentEnd = Math.min(fence, (i | column.indexMask) + 1);
+                    int end = column.offset(segmentEnd - 1) + 8;
+                    for (int offset = column.offset(i); offset < end; offset += 8) {
+                        action.accept(segment.getLong(offset));
+                    }
+                    i = segmentEnd;
+                }
+            } finally {
+                column.release();
+            }
+        }
+    }
+
+    public static final class OfDouble extends OffHeapColumn {
+
+        private OfDouble(long length) {
+            super(length, 3);
+        }
+
+        public double get(long index) {
+            ByteBuffer[] segments = acquire();
+            try {
+                return segment(segments, index).getDouble(offset(index));
+            } finally {
+                release();
+            }
+        }
+
+        public void set(long index, double value) {
+            ByteBuffer[] segments = acquire();
+            try {
+                segment(segments, index).putDouble(offset(index), value);
+            } finally {
+                release();
+            }
+        }
+
+        public Spliterator.OfDouble spliterator() {
+            return new OfDoubleSpliterator(this, 0, length());
+        }
+
+        public DoubleStream stream() {
+            return StreamSupport.doubleStream(spliterator(), false);
+        }
+    }
+
+    private static final class OfDoubleSpliterator
+            extends ColumnSpliterator<Double, DoubleConsumer, Spliterator.OfDouble>
+            implements Spliterator.OfDouble {
+
+        OfDoubleSpliterator(OffHeapColumn column, long index, long fence) {
+            super(column, index, fence);
+        }
+
+        @Override
+        Spliterator.OfDouble split(long from, long to) {
+            return new OfDoubleSpliterator(column, from, to);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            ByteBuffer[] segments = column.acquire();
+            double value;
+            try {
+                value = column.segment(segments, index).getDouble(column.offset(index));
+            } finally {
+                column.release();
+            }
+            index++;
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            long i = index;
+            if (i >= fence) {
+                return;
+            }
+            index = fence;
+            ByteBuffer[] segments = column.acquire();
+            try {
+                // Walk segment by segment so the inner loop only reads one buffer.
+                while (i < fence) {
+                    ByteBuffer segment = segments[(int) (i >>> column.indexShift)];
+                    long segmentEnd = Math.min(fence, (i | column.indexMask) + 1);
+                    int end = column.offset(segmentEnd - 1) + 8;
+                    for (int offset = column.offset(i); offset < end; offset += 8) {
+                        action.accept(segment.getDouble(offset));
+                    }
+                    i = segmentEnd;
+                }
+            } finally {
+                column.release();
+            }
+        }
+    }
+}
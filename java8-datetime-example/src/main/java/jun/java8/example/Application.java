@@ -2,7 +2,6 @@ package jun.java8.example;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import sun.util.locale.provider.LocaleServiceProviderPool;
 
 import java.time.*;
 import java.time.format.DateTimeFormatter;
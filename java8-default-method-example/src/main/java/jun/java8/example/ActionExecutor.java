@@ -0,0 +1,105 @@
+package jun.java8.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * The worker pool behind {@link Application.Action#doActionAsync()} and
+ * {@link Application.Action#doActions(List)}.
+ * </p>
+ * <p>
+ * The pool has one daemon thread per processor and a bounded queue. When a burst
+ * fills the queue the submitting thread runs the task itself, which slows the burst
+ * down instead of queueing without limit or rejecting it. doActions() runs many
+ * actions as a few tasks, one batch per worker, so a burst costs a few queue
+ * operations and thread hand-offs rather than one per action.
+ * </p>
+ * <p>
+ * A task submitted from one of the workers, e.g. by an action which calls
+ * doActions(...).join(), runs at once on that worker. Queued behind the task which
+ * waits for it, it could otherwise never run once every worker waits.
+ * </p>
+ */
+final class ActionExecutor {
+
+    private static final int WORKERS = Runtime.getRuntime().availableProcessors();
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private static final ThreadPoolExecutor POOL = newPool();
+
+    static final Executor EXECUTOR = ActionExecutor::execute;
+
+    private ActionExecutor() {
+    }
+
+    static CompletableFuture<Void> runAll(List<? extends Application.Action> actions) {
+        if (actions.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // The batches are views of a copy, the caller may change its list afterwards.
+        List<Application.Action> copy = new ArrayList<>(actions);
+        int batches = Math.min(WORKERS, copy.size());
+        int batchSize = (copy.size() + batches - 1) / batches;
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger((copy.size() + batchSize - 1) / batchSize);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int from = 0; from < copy.size(); from += batchSize) {
+            List<Application.Action> batch = copy.subList(from, Math.min(from + batchSize, copy.size()));
+            EXECUTOR.execute(() -> {
+                // A failing action does not keep the rest of its batch from running.
+                for (Application.Action action : batch) {
+                    try {
+                        action.doAction();
+                    } catch (Throwable ex) {
+                        if (!failure.compareAndSet(null, ex) && failure.get() != ex) {
+                            failure.get().addSuppressed(ex);
+                        }
+                    }
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    Throwable cause = failure.get();
+                    if (cause == null) {
+                        result.complete(null);
+                    } else {
+                        result.completeExceptionally(cause);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    private static void execute(Runnable task) {
+        if (Thread.currentThread() instanceof Worker) {
+            task.run();
+        } else {
+            POOL.execute(task);
+        }
+    }
+
+    private static ThreadPoolExecutor newPool() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(WORKERS, WORKERS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> new Worker(runnable, "action-" + count.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class Worker extends Thread {
+
+        Worker(Runnable runnable, String name) {
+            super(runnable, name);
+            setDaemon(true);
+        }
+    }
+}
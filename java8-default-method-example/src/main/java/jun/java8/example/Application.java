@@ -3,6 +3,11 @@ package jun.java8.example;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 
 public class Application {
 
@@ -28,6 +33,27 @@ public class Application {
         default void doAction() {
             logger.info("call default method.");
         }
+
+        /**
+         * Run doAction() on the shared, bounded action pool.
+         */
+        default CompletableFuture<Void> doActionAsync() {
+            return doActionAsync(ActionExecutor.EXECUTOR);
+        }
+
+        default CompletableFuture<Void> doActionAsync(Executor executor) {
+            return CompletableFuture.runAsync(this::doAction, executor);
+        }
+
+        /**
+         * Run the doAction() of all the actions on the shared action pool, in a few
+         * batches. The future completes when they have all run, exceptionally with the
+         * first failure if any failed. Called from an action which runs on the pool,
+         * the actions run on the calling worker before doActions() returns.
+         */
+        static CompletableFuture<Void> doActions(List<? extends Action> actions) {
+            return ActionExecutor.runAll(actions);
+        }
     }
 
     private static void default_method() {
@@ -44,6 +70,10 @@ public class Application {
             }
         };
         action2.doAction();
+
+        // The same implementations, run on the action pool.
+        action1.doActionAsync().join();
+        Action.doActions(Arrays.asList(action1, action2, action1, action2)).join();
     }
 
     public interface InterfaceA {
@@ -82,20 +112,38 @@ public class Application {
 
     public static class Conflicts implements InterfaceOne, InterfaceTwo {
 
-        private String chosenSupper;
+        // How to bind each default to an instance, resolved once for the class.
+        private static final DefaultMethodTable<Conflicts, Runnable> CALLS =
+                new DefaultMethodTable<Conflicts, Runnable>(Conflicts.class)
+                        .put(InterfaceOne.class, c -> c::callInterfaceOne)
+                        .put(InterfaceTwo.class, c -> c::callInterfaceTwo);
+
+        private Runnable chosenCall;
 
+        /**
+         * Choose the default which call() runs, by the simple name of its interface.
+         *
+         * @throws IllegalArgumentException if no interface of Conflicts has that name
+         */
         public Conflicts setChosenSupper(String chosenSupper) {
-            this.chosenSupper = chosenSupper;
+            this.chosenCall = CALLS.bind(this, chosenSupper);
             return this;
         }
 
         @Override
         public void call() {
-            if (this.chosenSupper.equals("InterfaceOne")) {
-                InterfaceOne.super.call();
-            } else {
-                InterfaceTwo.super.call();
+            if (chosenCall == null) {
+                throw new IllegalStateException("No default chosen, call setChosenSupper() first");
             }
+            chosenCall.run();
+        }
+
+        private void callInterfaceOne() {
+            InterfaceOne.super.call();
+        }
+
+        private void callInterfaceTwo() {
+            InterfaceTwo.super.call();
         }
     }
 
@@ -0,0 +1,90 @@
+package jun.java8.example;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * The conflicting default implementations of one method, keyed by the interface
+ * which provides each, for a class which picks one of them at run time.
+ * </p>
+ * <p>
+ * Instead of an if/else chain of N <code>X.super.method()</code> calls which compares
+ * the choice on every call, the class registers once, in a static table, how to bind
+ * each default to an instance. Choosing looks the interface up and binds that entry
+ * alone, and every call afterwards is a single call on the bound lambda:
+ * </p>
+ * <pre>
+ * private static final DefaultMethodTable&lt;Conflicts, Runnable&gt; CALLS =
+ *         new DefaultMethodTable&lt;Conflicts, Runnable&gt;(Conflicts.class)
+ *                 .put(InterfaceOne.class, c -&gt; c::callInterfaceOne)
+ *                 .put(InterfaceTwo.class, c -&gt; c::callInterfaceTwo);
+ *
+ * chosenCall = CALLS.bind(this, "InterfaceOne");
+ * chosenCall.run();
+ * </pre>
+ * <p>
+ * X.super.method() can only be written in the class itself, so each entry calls a
+ * private method of the class such as <code>callInterfaceOne()</code>, which makes
+ * the super call. Interfaces and names which are not in the table are rejected with
+ * IllegalArgumentException. The table must be filled before it is shared, e.g. in a
+ * static initializer, and only read afterwards.
+ * </p>
+ *
+ * @param <T> the class which inherits the conflicting defaults
+ * @param <F> the functional interface the defaults are bound to, e.g. Runnable
+ */
+public final class DefaultMethodTable<T, F> {
+
+    private final Class<T> type;
+    private final Map<Class<?>, Function<? super T, ? extends F>> binders = new LinkedHashMap<>();
+
+    public DefaultMethodTable(Class<T> type) {
+        this.type = type;
+    }
+
+    /**
+     * Register how to bind the default of iface, an interface which type implements.
+     */
+    public DefaultMethodTable<T, F> put(Class<?> iface, Function<? super T, ? extends F> binder) {
+        if (!iface.isInterface() || !iface.isAssignableFrom(type)) {
+            throw new IllegalArgumentException(type.getName() + " does not implement " + iface.getName());
+        }
+        binders.put(iface, binder);
+        return this;
+    }
+
+    /**
+     * The default of iface, bound to target.
+     */
+    public F bind(T target, Class<?> iface) {
+        Function<? super T, ? extends F> binder = binders.get(iface);
+        if (binder == null) {
+            throw new IllegalArgumentException("No default of " + iface.getName() + ", expected one of " + names());
+        }
+        return binder.apply(target);
+    }
+
+    /**
+     * The default of the interface with this simple name, bound to target.
+     */
+    public F bind(T target, String interfaceName) {
+        for (Map.Entry<Class<?>, Function<? super T, ? extends F>> entry : binders.entrySet()) {
+            if (entry.getKey().getSimpleName().equals(interfaceName)) {
+                return entry.getValue().apply(target);
+            }
+        }
+        throw new IllegalArgumentException("No default of " + interfaceName + ", expected one of " + names());
+    }
+
+    private List<String> names() {
+        List<String> names = new ArrayList<>(binders.size());
+        for (Class<?> iface : binders.keySet()) {
+            names.add(iface.getSimpleName());
+        }
+        return names;
+    }
+}
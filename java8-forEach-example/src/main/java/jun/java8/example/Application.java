@@ -7,6 +7,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -58,6 +60,16 @@ public class Application {
             logger.info(s);
         };
         names.forEach(consumer2);
+
+        logger.info("3. forEach() on a bounded executor for blocking consumers:");
+
+        // At most 2 actions run at a time, each worker takes 2 names per batch.
+        new AsyncForEach().
+                setConcurrency(2).
+                setBatchSize(2).
+                setVirtualThreads(true).
+                forEach(names, logger::info).
+                join();
     }
 
     private static void forEach_map() {
@@ -87,6 +99,31 @@ public class Application {
             logger.info("k:{} v:{}", k, v);
         };
         map.forEach(consumer2);
+
+        logger.info("3. forEach() on a bounded executor for blocking consumers");
+
+        new AsyncForEach().
+                setConcurrency(2).
+                forEach(map, (k, v) -> logger.info("k:{} v:{}", k, v)).
+                whenComplete((ignored, ex) -> {
+                    if (ex == null) {
+                        logger.info("done");
+                    } else {
+                        logger.error("forEach failed", ex);
+                    }
+                }).
+                join();
+
+        logger.info("4. Parallel bulk operations, split over the bins of the table");
+
+        // A threshold of 1 splits the map as far as possible, Long.MAX_VALUE walks it sequentially.
+        MapBulk.forEach(map, 1, (k, v) -> logger.info("k:{} v:{}", k, v));
+
+        Integer length = MapBulk.reduce(map, 1, (k, v) -> v.length(), Integer::sum);
+        logger.info("total length of the values: {}", length);
+
+        String key = MapBulk.search(map, 1, (k, v) -> v.startsWith("B") ? k : null);
+        logger.info("key of the value starting with B: {}", key);
     }
 
     private static void forEach_stream() {
@@ -124,5 +161,20 @@ public class Application {
                 filter(n -> n % 2 == 0).
                 parallel().
                 forEachOrdered(logger::info);
+
+        logger.info("2. forEachOrdered() with a bounded reorder window:");
+
+        // The work runs on 4 threads, but at most 2 results wait to be delivered in order.
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new OrderedParallelForEach(executor, 2).forEachOrdered(
+                    numberList.stream().filter(n -> n % 2 == 0),
+                    n -> n * 10,
+                    logger::info);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
     }
 }
@@ -0,0 +1,203 @@
+package jun.java8.example;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * A forEach which runs the action on a bounded executor rather than on the caller.
+ * </p>
+ * <p>
+ * Iterable.forEach() runs a blocking action one element at a time on the calling
+ * thread, and parallel().forEach() runs it on the common fork/join pool, where every
+ * blocked worker is a worker lost to all the other parallel streams of the JVM.
+ * Here concurrency workers take batches of batchSize elements from the source and
+ * run the action on them, so at most concurrency actions are running at any time.
+ * </p>
+ * <p>
+ * The action runs on a dedicated executor: the one given by setExecutor(), or else a
+ * pool created for the traversal and shut down when it is done. With
+ * setVirtualThreads(true) that pool starts one virtual thread per worker when the
+ * runtime has them (Java 21+), and falls back to platform threads otherwise.
+ * </p>
+ * <p>
+ * A failing action does not stop the traversal. The returned future completes when
+ * every element has been processed, exceptionally with the first failure if there
+ * was one, the later failures being added to it as suppressed exceptions.
+ * </p>
+ */
+public class AsyncForEach {
+
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+    private int concurrency = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 1;
+    private Executor executor;
+    private boolean virtualThreads;
+
+    public AsyncForEach setConcurrency(int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        }
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    public AsyncForEach setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Run the workers on this executor, which is not shut down by the traversal.
+     */
+    public AsyncForEach setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public AsyncForEach setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    public static boolean isVirtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    public <T> CompletableFuture<Void> forEach(Iterable<? extends T> source, Consumer<? super T> action) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        ExecutorService owned = executor == null ? newExecutor() : null;
+        Traversal<T> traversal = new Traversal<>(source.iterator(), action, result);
+        traversal.start(owned != null ? owned : executor);
+        if (owned != null) {
+            result.whenComplete((ignored, ex) -> owned.shutdown());
+        }
+        return result;
+    }
+
+    public <K, V> CompletableFuture<Void> forEach(Map<K, V> map, BiConsumer<? super K, ? super V> action) {
+        return forEach(map.entrySet(), entry -> action.accept(entry.getKey(), entry.getValue()));
+    }
+
+    private ExecutorService newExecutor() {
+        if (virtualThreads && NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException ex) {
+                // Fall back to platform threads.
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "async-forEach-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Method findVirtualThreadExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    private final class Traversal<T> implements Runnable {
+
+        private final Iterator<? extends T> source;
+        private final Consumer<? super T> action;
+        private final CompletableFuture<Void> result;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        // Guarded by source.
+        private boolean exhausted;
+
+        Traversal(Iterator<? extends T> source, Consumer<? super T> action, CompletableFuture<Void> result) {
+            this.source = source;
+            this.action = action;
+            this.result = result;
+        }
+
+        void start(Executor executor) {
+            running.set(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                try {
+                    executor.execute(this);
+                } catch (RuntimeException ex) {
+                    fail(ex);
+                    finish();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<T> batch = new ArrayList<>(batchSize);
+                while (nextBatch(batch)) {
+                    for (T element : batch) {
+                        try {
+                            action.accept(element);
+                        } catch (Throwable ex) {
+                            fail(ex);
+                        }
+                    }
+                    batch.clear();
+                }
+            } finally {
+                finish();
+            }
+        }
+
+        private boolean nextBatch(List<T> batch) {
+            synchronized (source) {
+                try {
+                    while (!exhausted && batch.size() < batchSize) {
+                        if (source.hasNext()) {
+                            batch.add(source.next());
+                        } else {
+                            exhausted = true;
+                        }
+                    }
+                } catch (Throwable ex) {
+                    exhausted = true;
+                    fail(ex);
+                }
+            }
+            return !batch.isEmpty();
+        }
+
+        private void fail(Throwable ex) {
+            if (!failure.compareAndSet(null, ex) && failure.get() != ex) {
+                failure.get().addSuppressed(ex);
+            }
+        }
+
+        private void finish() {
+            if (running.decrementAndGet() == 0) {
+                Throwable cause = failure.get();
+                if (cause == null) {
+                    result.complete(null);
+                } else {
+                    result.completeExceptionally(cause);
+                }
+            }
+        }
+    }
+}
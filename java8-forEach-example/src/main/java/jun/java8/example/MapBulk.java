@@ -0,0 +1,202 @@
+package jun.java8.example;
+
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * Parallel forEach, reduce and search over the entries of a map, in the style of the
+ * bulk operations of ConcurrentHashMap.
+ * </p>
+ * <p>
+ * Map.forEach() walks the table on the calling thread. These operations split the
+ * entry set instead, which for HashMap hands out ranges of the table's bins, and
+ * process the pieces on the common fork/join pool. A piece is split again while it
+ * holds more than parallelismThreshold entries, so Long.MAX_VALUE runs sequentially
+ * on the caller and 1 gives the most parallelism. A ConcurrentHashMap is passed to
+ * its own bulk operations.
+ * </p>
+ * <p>
+ * The spliterator overloads do the same for any other source, e.g. the entries of
+ * IntObjectMap.spliterator() in java8-lambda-example, whose int keys are not boxed:
+ * <code>MapBulk.forEach(map.spliterator(), 1, e -&gt; use(e.getKey(), e.getValue()))</code>.
+ * The source must not be modified during the operation, and the actions must be safe
+ * to run concurrently. Like ConcurrentHashMap, reduce() ignores null results and
+ * returns null when there are none, and search() returns any non-null result, not
+ * necessarily the first.
+ * </p>
+ */
+public final class MapBulk {
+
+    private MapBulk() {
+    }
+
+    public static <K, V> void forEach(Map<K, V> map, long parallelismThreshold,
+                                      BiConsumer<? super K, ? super V> action) {
+        if (map instanceof ConcurrentHashMap) {
+            ((ConcurrentHashMap<K, V>) map).forEach(parallelismThreshold, action);
+            return;
+        }
+        forEach(map.entrySet().spliterator(), parallelismThreshold,
+                entry -> action.accept(entry.getKey(), entry.getValue()));
+    }
+
+    public static <K, V, U> U reduce(Map<K, V> map, long parallelismThreshold,
+                                     BiFunction<? super K, ? super V, ? extends U> transformer,
+                                     BiFunction<? super U, ? super U, ? extends U> reducer) {
+        if (map instanceof ConcurrentHashMap) {
+            return ((ConcurrentHashMap<K, V>) map).reduce(parallelismThreshold, transformer, reducer);
+        }
+        return reduce(map.entrySet().spliterator(), parallelismThreshold,
+                entry -> transformer.apply(entry.getKey(), entry.getValue()), reducer::apply);
+    }
+
+    public static <K, V, U> U search(Map<K, V> map, long parallelismThreshold,
+                                     BiFunction<? super K, ? super V, ? extends U> searchFunction) {
+        if (map instanceof ConcurrentHashMap) {
+            return ((ConcurrentHashMap<K, V>) map).search(parallelismThreshold, searchFunction);
+        }
+        return search(map.entrySet().spliterator(), parallelismThreshold,
+                entry -> searchFunction.apply(entry.getKey(), entry.getValue()));
+    }
+
+    public static <T> void forEach(Spliterator<T> source, long parallelismThreshold,
+                                   Consumer<? super T> action) {
+        if (source.estimateSize() <= parallelismThreshold) {
+            source.forEachRemaining(action);
+        } else {
+            ForkJoinPool.commonPool().invoke(new ForEachTask<>(source, parallelismThreshold, action));
+        }
+    }
+
+    public static <T, U> U reduce(Spliterator<T> source, long parallelismThreshold,
+                                  Function<? super T, ? extends U> transformer,
+                                  BinaryOperator<U> reducer) {
+        ReduceTask<T, U> task = new ReduceTask<>(source, parallelismThreshold, transformer, reducer);
+        return source.estimateSize() <= parallelismThreshold
+                ? task.compute()
+                : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    public static <T, U> U search(Spliterator<T> source, long parallelismThreshold,
+                                  Function<? super T, ? extends U> searchFunction) {
+        AtomicReference<U> result = new AtomicReference<>();
+        SearchTask<T, U> task = new SearchTask<>(source, parallelismThreshold, searchFunction, result);
+        if (source.estimateSize() <= parallelismThreshold) {
+            task.compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+        return result.get();
+    }
+
+    private static final class ForEachTask<T> extends RecursiveAction {
+
+        private final Spliterator<T> source;
+        private final long threshold;
+        private final Consumer<? super T> action;
+
+        ForEachTask(Spliterator<T> source, long threshold, Consumer<? super T> action) {
+            this.source = source;
+            this.threshold = threshold;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator<T> prefix;
+            if (source.estimateSize() > threshold && (prefix = source.trySplit()) != null) {
+                invokeAll(new ForEachTask<>(prefix, threshold, action),
+                        new ForEachTask<>(source, threshold, action));
+            } else {
+                source.forEachRemaining(action);
+            }
+        }
+    }
+
+    private static final class ReduceTask<T, U> extends RecursiveTask<U> {
+
+        private final Spliterator<T> source;
+        private final long threshold;
+        private final Function<? super T, ? extends U> transformer;
+        private final BinaryOperator<U> reducer;
+
+        ReduceTask(Spliterator<T> source, long threshold,
+                   Function<? super T, ? extends U> transformer, BinaryOperator<U> reducer) {
+            this.source = source;
+            this.threshold = threshold;
+            this.transformer = transformer;
+            this.reducer = reducer;
+        }
+
+        @Override
+        protected U compute() {
+            Spliterator<T> prefix;
+            if (source.estimateSize() > threshold && (prefix = source.trySplit()) != null) {
+                ReduceTask<T, U> left = new ReduceTask<>(prefix, threshold, transformer, reducer);
+                left.fork();
+                U right = new ReduceTask<>(source, threshold, transformer, reducer).compute();
+                return combine(left.join(), right);
+            }
+            Object[] result = new Object[1];
+            source.forEachRemaining(element -> result[0] = combine(cast(result[0]), transformer.apply(element)));
+            return cast(result[0]);
+        }
+
+        private U combine(U a, U b) {
+            return a == null ? b : b == null ? a : reducer.apply(a, b);
+        }
+
+        @SuppressWarnings("unchecked")
+        private U cast(Object value) {
+            return (U) value;
+        }
+    }
+
+    private static final class SearchTask<T, U> extends RecursiveAction {
+
+        private final Spliterator<T> source;
+        private final long threshold;
+        private final Function<? super T, ? extends U> searchFunction;
+        private final AtomicReference<U> result;
+
+        SearchTask(Spliterator<T> source, long threshold,
+                   Function<? super T, ? extends U> searchFunction, AtomicReference<U> result) {
+            this.source = source;
+            this.threshold = threshold;
+            this.searchFunction = searchFunction;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator<T> prefix;
+            if (source.estimateSize() > threshold && (prefix = source.trySplit()) != null) {
+                invokeAll(new SearchTask<>(prefix, threshold, searchFunction, result),
+                        new SearchTask<>(source, threshold, searchFunction, result));
+                return;
+            }
+            // Stop as soon as this or any other task has found a result.
+            Consumer<T> probe = element -> {
+                U found = searchFunction.apply(element);
+                if (found != null) {
+                    result.compareAndSet(null, found);
+                }
+            };
+            boolean more = true;
+            while (more && result.get() == null) {
+                more = source.tryAdvance(probe);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package jun.java8.example;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * An ordered parallel forEach with a bounded reorder buffer.
+ * </p>
+ * <p>
+ * <code>parallel().map(work).forEachOrdered(action)</code> has to buffer the results of
+ * every split which finishes ahead of its predecessors, and that buffer is unbounded
+ * for large or skewed inputs. Here the work runs on the executor, and the results are
+ * handed to the downstream consumer one at a time, in encounter order, through a
+ * reorder window of a fixed number of slots. An element is only submitted when a slot
+ * is free, so when the oldest element is slow the workers which ran ahead simply get
+ * no new work until it is delivered. At most window results are held in memory.
+ * </p>
+ */
+public class OrderedParallelForEach {
+
+    private static final Object NULL = new Object();
+
+    private final Executor executor;
+    private final int window;
+
+    public OrderedParallelForEach(Executor executor, int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive: " + window);
+        }
+        this.executor = executor;
+        this.window = window;
+    }
+
+    /**
+     * Apply work to every element of the stream on the executor and pass the results
+     * to downstream in encounter order. downstream is never called concurrently.
+     * Returns when every result has been delivered; the first failure of work or
+     * downstream stops the submission of new elements and is rethrown.
+     */
+    public <T, R> void forEachOrdered(Stream<T> stream, Function<? super T, ? extends R> work,
+                                      Consumer<? super R> downstream) throws InterruptedException {
+        new Traversal<T, R>(work, downstream).run(stream.iterator());
+    }
+
+    private final class Traversal<T, R> {
+
+        private final Function<? super T, ? extends R> work;
+        private final Consumer<? super R> downstream;
+        private final Semaphore permits = new Semaphore(window);
+        private final Object[] slots = new Object[window];
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition delivered = lock.newCondition();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        // Only touched by the thread running the traversal.
+        private long submitted;
+        // Guarded by lock.
+        private long next;
+
+        Traversal(Function<? super T, ? extends R> work, Consumer<? super R> downstream) {
+            this.work = work;
+            this.downstream = downstream;
+        }
+
+        void run(Iterator<T> source) throws InterruptedException {
+            try {
+                while (failure.get() == null && source.hasNext()) {
+                    T element = source.next();
+                    permits.acquire();
+                    long sequence = submitted;
+                    executor.execute(() -> process(sequence, element));
+                    submitted++;
+                }
+            } catch (RuntimeException | Error ex) {
+                fail(ex);
+            } finally {
+                awaitDelivery();
+            }
+            Throwable cause = failure.get();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            if (cause != null) {
+                throw new CompletionException(cause);
+            }
+        }
+
+        private void process(long sequence, T element) {
+            Object result;
+            try {
+                result = failure.get() == null ? work.apply(element) : null;
+            } catch (Throwable ex) {
+                fail(ex);
+                result = null;
+            }
+            complete(sequence, result);
+        }
+
+        /**
+         * Put the result in its slot, then deliver the results which are ready in order.
+         */
+        private void complete(long sequence, Object result) {
+            lock.lock();
+            try {
+                slots[(int) (sequence % window)] = result == null ? NULL : result;
+                int slot;
+                while (slots[slot = (int) (next % window)] != null) {
+                    Object value = slots[slot];
+                    slots[slot] = null;
+                    next++;
+                    if (failure.get() == null) {
+                        deliver(value);
+                    }
+                    permits.release();
+                }
+                delivered.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void deliver(Object value) {
+            try {
+                downstream.accept(value == NULL ? null : (R) value);
+            } catch (Throwable ex) {
+                fail(ex);
+            }
+        }
+
+        private void fail(Throwable ex) {
+            if (!failure.compareAndSet(null, ex) && failure.get() != ex) {
+                failure.get().addSuppressed(ex);
+            }
+        }
+
+        private void awaitDelivery() throws InterruptedException {
+            lock.lock();
+            try {
+                while (next < submitted) {
+                    delivered.await();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
 
 public class Application {
 
@@ -39,6 +41,19 @@ public class Application {
         phoneBook.put(1, "1");
         phoneBook.put(2, "2");
         phoneBook.forEach((k, v) -> logger.info("k:{} v:{}", k, v));
+
+        // The same phone book without an Integer and a HashMap.Node per entry,
+        // the lambda receives the key as an int.
+        IntObjectMap<String> primitivePhoneBook = new IntObjectMap<>();
+        primitivePhoneBook.put(1, "1");
+        primitivePhoneBook.put(2, "2");
+        primitivePhoneBook.forEach((int k, String v) -> logger.info("k:{} v:{}", k, v));
+
+        // Its spliterator feeds parallel streams, e.g. to sum the keys without boxing them.
+        int keySum = StreamSupport.stream(primitivePhoneBook.spliterator(), true)
+                .mapToInt(IntObjectMap.Entry::getKey)
+                .sum();
+        logger.info("sum of the keys: {}", keySum);
     }
 
     /**
@@ -118,6 +133,20 @@ public class Application {
     private static void function_interface() {
         logger.info("function_interface: -------------------");
         foo(() -> "Returning value from function interface");
+
+        // An expensive supplier is called once, then served from the cache for a minute.
+        Memoizer.MemoizedSupplier<String> lookup = Memoizer.memoize(
+                () -> "Returning cached value from function interface", 1, TimeUnit.MINUTES);
+        foo(lookup::get);
+        foo(lookup::get);
+        logger.info("supplier: {}", lookup.stats());
+
+        // A function caches the value of the 2 most recently used arguments.
+        Memoizer.MemoizedFunction<Integer, String> names = Memoizer.memoize(n -> "name-" + n, 2);
+        for (int n : new int[]{1, 2, 1, 3, 2}) {
+            foo(() -> names.apply(n));
+        }
+        logger.info("function: {}", names.stats());
     }
 
     @FunctionalInterface
@@ -0,0 +1,340 @@
+package jun.java8.example;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * A hash map from int keys to object values, with open addressing and linear probing.
+ * </p>
+ * <p>
+ * A HashMap&lt;Integer, V&gt; allocates an Integer and a HashMap.Node for every entry
+ * and follows two pointers from the table to reach the key. Here the keys are stored
+ * in an int[] array and the values in a parallel Object[] array, so an entry costs
+ * a few array slots, and a lookup probes adjacent slots of the same two arrays.
+ * </p>
+ * <p>
+ * Values may not be null: a null value marks a free slot, so every int, 0 included,
+ * can be a key. Removal shifts the following entries of the probe sequence back
+ * instead of leaving tombstones, so lookups never slow down after removals.
+ * forEach() passes the keys to an {@link IntObjConsumer} without boxing them.
+ * spliterator() hands out the entries in ranges of slots, for parallel streams and
+ * the spliterator overloads of MapBulk in java8-forEach-example.
+ * </p>
+ */
+public class IntObjectMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * An action on an int key and an object value.
+     */
+    @FunctionalInterface
+    public interface IntObjConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    /**
+     * An entry handed out by spliterator(), with an int key.
+     */
+    public static final class Entry<V> {
+
+        private final int key;
+        private final V value;
+
+        Entry(int key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public int getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    public IntObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a map which holds expectedSize entries without resizing.
+     */
+    public IntObjectMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Illegal size: " + expectedSize);
+        }
+        allocate(tableSizeFor((long) Math.ceil(expectedSize / LOAD_FACTOR)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            Object value = values[i];
+            if (value == null || keys[i] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    public V getOrDefault(int key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Associate the value with the key.
+     *
+     * @return the previous value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("null values are not supported");
+        }
+        int i = hash(key) & mask;
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        // A full table of MAX_CAPACITY slots cannot double, refuse the entry before
+        // storing it rather than overflow the capacity.
+        if (size >= threshold && keys.length >= MAX_CAPACITY) {
+            throw new IllegalStateException("IntObjectMap cannot hold more than " + threshold + " entries");
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Remove the key.
+     *
+     * @return the value it had, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = hash(key) & mask;
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                shiftBack(i);
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    public void forEach(IntObjConsumer<? super V> action) {
+        int[] keys = this.keys;
+        Object[] values = this.values;
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value != null) {
+                @SuppressWarnings("unchecked")
+                V v = (V) value;
+                action.accept(keys[i], v);
+            }
+        }
+    }
+
+    /**
+     * The entries of the map. Like the spliterator of HashMap it splits the table in
+     * halves of slots, so only the unsplit spliterator knows its exact size. The map
+     * must not be modified while it is traversed.
+     */
+    public Spliterator<Entry<V>> spliterator() {
+        return new EntrySpliterator<>(keys, values, 0, values.length, size, true);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Free the slot and move back every later entry of the run which would no longer
+     * be reachable from its home slot.
+     */
+    private void shiftBack(int free) {
+        for (int i = (free + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = hash(keys[i]) & mask;
+            // Move the entry unless its home lies cyclically in (free, i].
+            if (free <= i ? (home <= free || home > i) : (home <= free && home > i)) {
+                keys[free] = keys[i];
+                values[free] = values[i];
+                free = i;
+            }
+        }
+        values[free] = null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] != null) {
+                int i = hash(oldKeys[j]) & mask;
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = Math.min((int) (capacity * LOAD_FACTOR), capacity - 1);
+    }
+
+    private static int tableSizeFor(long capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("IntObjectMap cannot hold more than "
+                    + (int) (MAX_CAPACITY * LOAD_FACTOR) + " entries");
+        }
+        int size = DEFAULT_CAPACITY;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static final class EntrySpliterator<V> implements Spliterator<Entry<V>> {
+
+        private final int[] keys;
+        private final Object[] values;
+        private int index;
+        private final int fence;
+        private long estimate;
+        // Only the unsplit spliterator knows how many entries it holds.
+        private boolean exact;
+
+        EntrySpliterator(int[] keys, Object[] values, int index, int fence, long estimate, boolean exact) {
+            this.keys = keys;
+            this.values = values;
+            this.index = index;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.exact = exact;
+        }
+
+        @Override
+        public Spliterator<Entry<V>> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            estimate >>>= 1;
+            exact = false;
+            Spliterator<Entry<V>> prefix = new EntrySpliterator<>(keys, values, index, mid, estimate, false);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<V>> action) {
+            while (index < fence) {
+                int i = index++;
+                Object value = values[i];
+                if (value != null) {
+                    if (estimate > 0) {
+                        estimate--;
+                    }
+                    action.accept(entry(keys[i], value));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Entry<V>> action) {
+            int i = index;
+            index = fence;
+            estimate = 0;
+            for (; i < fence; i++) {
+                Object value = values[i];
+                if (value != null) {
+                    action.accept(entry(keys[i], value));
+                }
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return (exact ? SIZED : 0) | DISTINCT | NONNULL;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Entry<V> entry(int key, Object value) {
+            return new Entry<>(key, (V) value);
+        }
+    }
+
+    /**
+     * Spread the key over all the bits, consecutive keys would otherwise fill
+     * consecutive slots and form long runs.
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
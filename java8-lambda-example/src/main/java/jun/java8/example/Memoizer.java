@@ -0,0 +1,237 @@
+package jun.java8.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Caches the results of expensive suppliers and functions.
+ * </p>
+ * <ul>
+ *     <li>memoize(supplier, ttl, unit) calls the supplier once and returns its value
+ *     until ttl has passed, then calls it again.</li>
+ *     <li>memoize(function, maximumSize) caches the value of every argument and
+ *     evicts the least recently used one when more than maximumSize are cached.</li>
+ * </ul>
+ * <p>
+ * Concurrent callers share one computation: the first caller for a key computes the
+ * value and the others wait for it rather than computing it again. A computation which
+ * throws is not cached, the exception is rethrown to all the callers which waited for
+ * it and the next call tries again. The supplier or function must not call the
+ * memoized wrapper for the same key, it would wait for itself.
+ * </p>
+ * <p>
+ * stats() counts the calls answered from the cache (hits), the calls which computed
+ * a value (misses), and the values dropped by expiry or eviction.
+ * </p>
+ */
+public final class Memoizer {
+
+    private Memoizer() {
+    }
+
+    public static <T> MemoizedSupplier<T> memoize(Supplier<? extends T> supplier, long ttl, TimeUnit unit) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        }
+        return new MemoizedSupplier<>(supplier, unit.toNanos(ttl));
+    }
+
+    public static <K, V> MemoizedFunction<K, V> memoize(Function<? super K, ? extends V> function, int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        return new MemoizedFunction<>(function, maximumSize);
+    }
+
+    /**
+     * A snapshot of the counters of a memoized supplier or function.
+     */
+    public static final class Stats {
+
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+
+        Stats(long hitCount, long missCount, long evictionCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+        }
+
+        public long hitCount() {
+            return hitCount;
+        }
+
+        public long missCount() {
+            return missCount;
+        }
+
+        public long evictionCount() {
+            return evictionCount;
+        }
+
+        public double hitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + '}';
+        }
+    }
+
+    public static final class MemoizedSupplier<T> implements Supplier<T> {
+
+        private static final class Entry<T> {
+
+            final T value;
+            final long expiresAt;
+
+            Entry(T value, long expiresAt) {
+                this.value = value;
+                this.expiresAt = expiresAt;
+            }
+        }
+
+        private final Supplier<? extends T> supplier;
+        private final long ttlNanos;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private volatile Entry<T> entry;
+
+        private MemoizedSupplier(Supplier<? extends T> supplier, long ttlNanos) {
+            this.supplier = supplier;
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public T get() {
+            Entry<T> current = entry;
+            if (current != null && System.nanoTime() - current.expiresAt < 0) {
+                hits.increment();
+                return current.value;
+            }
+            synchronized (this) {
+                // Another caller may have computed the value while this one waited.
+                current = entry;
+                if (current != null && System.nanoTime() - current.expiresAt < 0) {
+                    hits.increment();
+                    return current.value;
+                }
+                if (current != null) {
+                    entry = null;
+                    evictions.increment();
+                }
+                misses.increment();
+                T value = supplier.get();
+                entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+                return value;
+            }
+        }
+
+        /**
+         * Drop the cached value, the next call computes it again.
+         */
+        public void invalidate() {
+            entry = null;
+        }
+
+        public Stats stats() {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum());
+        }
+    }
+
+    public static final class MemoizedFunction<K, V> implements Function<K, V> {
+
+        private final Function<? super K, ? extends V> function;
+        private final Map<K, CompletableFuture<V>> cache;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        private MemoizedFunction(Function<? super K, ? extends V> function, int maximumSize) {
+            this.function = function;
+            // An access ordered LinkedHashMap keeps the least recently used entry first.
+            this.cache = new LinkedHashMap<K, CompletableFuture<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, CompletableFuture<V>> eldest) {
+                    if (size() > maximumSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public V apply(K key) {
+            CompletableFuture<V> future;
+            boolean owner = false;
+            synchronized (cache) {
+                future = cache.get(key);
+                if (future == null) {
+                    future = new CompletableFuture<>();
+                    cache.put(key, future);
+                    owner = true;
+                }
+            }
+            if (!owner) {
+                hits.increment();
+                return await(future);
+            }
+            misses.increment();
+            try {
+                V value = function.apply(key);
+                future.complete(value);
+                return value;
+            } catch (RuntimeException | Error ex) {
+                synchronized (cache) {
+                    cache.remove(key, future);
+                }
+                future.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+
+        public void invalidate(K key) {
+            synchronized (cache) {
+                cache.remove(key);
+            }
+        }
+
+        public int size() {
+            synchronized (cache) {
+                return cache.size();
+            }
+        }
+
+        public Stats stats() {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum());
+        }
+
+        private static <V> V await(CompletableFuture<V> future) {
+            try {
+                return future.join();
+            } catch (CompletionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw ex;
+            }
+        }
+    }
+}
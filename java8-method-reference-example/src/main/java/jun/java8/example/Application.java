@@ -38,6 +38,10 @@ public class Application {
         logger.info("reference to static method: -------------------");
         Optional<Integer> result = Stream.of(1, 2, 3, 4, 5).reduce(Math::max);
         logger.info(result.orElse(-1));
+
+        // The same reduction in a loop class of its own, which only ever calls Math::max.
+        Specializer.Reducer<Integer> max = Specializer.reducer(Math::max);
+        logger.info(max.reduce(Stream.of(1, 2, 3, 4, 5)).orElse(-1));
     }
 
     /**
@@ -60,6 +64,10 @@ public class Application {
         strings.stream()
                 .sorted(String::compareTo)
                 .forEach(logger::info);
+
+        Specializer.sorter(String::compareTo)
+                .sorted(strings.stream())
+                .forEach(logger::info);
     }
 
     /**
@@ -71,5 +79,14 @@ public class Application {
         IntStream.range(1, 100).boxed()
                 .collect(Collectors.toCollection(ArrayList::new))
                 .forEach(logger::info);
+
+        // The int constructor reference is called with the size of the range, so the
+        // list never grows.
+        List<Integer> presized = SizedCollectors.toCollection(IntStream.range(1, 100).boxed(), ArrayList::new);
+        logger.info("presized: {}", presized.size());
+
+        // The range stays an int[], elements are boxed when they are read.
+        List<Integer> ints = SizedCollectors.toIntList(IntStream.range(1, 100));
+        logger.info("ints: {} ... {}", ints.get(0), ints.get(ints.size() - 1));
     }
 }
@@ -0,0 +1,44 @@
+package jun.java8.example;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.BinaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * The reduction loop which {@link Specializer} clones for every operator class.
+ * It must only use public types, the clones live in another class loader.
+ */
+final class ReduceLoop<T> implements Specializer.Reducer<T> {
+
+    private final BinaryOperator<T> operator;
+
+    ReduceLoop(BinaryOperator<T> operator) {
+        this.operator = operator;
+    }
+
+    @Override
+    public Optional<T> reduce(T[] values) {
+        if (values.length == 0) {
+            return Optional.empty();
+        }
+        T result = values[0];
+        for (int i = 1; i < values.length; i++) {
+            result = operator.apply(result, values[i]);
+        }
+        return Optional.of(result);
+    }
+
+    @Override
+    public Optional<T> reduce(Stream<T> stream) {
+        Iterator<T> iterator = stream.iterator();
+        if (!iterator.hasNext()) {
+            return Optional.empty();
+        }
+        T result = iterator.next();
+        while (iterator.hasNext()) {
+            result = operator.apply(result, iterator.next());
+        }
+        return Optional.of(result);
+    }
+}
@@ -0,0 +1,133 @@
+package jun.java8.example;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ * Collect a stream whose size is known into a collection created with that size.
+ * </p>
+ * <p>
+ * <code>collect(Collectors.toCollection(ArrayList::new))</code> cannot tell the
+ * constructor how many elements will come, because a Collector never sees the
+ * stream's spliterator: the list grows and copies its array about log<sub>1.5</sub>(n)
+ * times, and a parallel stream collects into one list per split and merges them with
+ * addAll(). These methods take the stream itself instead and read the SIZED and
+ * SUBSIZED characteristics of its spliterator:
+ * </p>
+ * <ul>
+ *     <li>toCollection(stream, ArrayList::new) calls the int constructor with the exact
+ *     size, so the collection never grows. The gain is that presizing only: a parallel
+ *     stream is first gathered with toArray(), which writes every split at its own offset
+ *     of one array instead of merging a collection per split, and the collection is then
+ *     filled from that array in order.</li>
+ *     <li>toList(stream) is Arrays.asList() over that array.</li>
+ *     <li>toIntList(intStream) stores the ints of e.g. a range in an int[] and boxes
+ *     only the elements which are read.</li>
+ * </ul>
+ * <p>
+ * Streams of unknown size fall back to Collectors.toCollection() with the default
+ * capacity of the factory. Every method closes the stream once it is collected, which
+ * runs its onClose() handlers, e.g. the one closing the file of Files.lines().
+ * </p>
+ */
+public final class SizedCollectors {
+
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private SizedCollectors() {
+    }
+
+    public static <T, C extends Collection<T>> C toCollection(Stream<T> stream, IntFunction<C> factory) {
+        try (Stream<T> closed = stream) {
+            boolean parallel = closed.isParallel();
+            Spliterator<T> spliterator = closed.spliterator();
+            long size = spliterator.getExactSizeIfKnown();
+            if (size < 0 || size > Integer.MAX_VALUE) {
+                return StreamSupport.stream(spliterator, parallel)
+                        .collect(Collectors.toCollection(() -> factory.apply(DEFAULT_CAPACITY)));
+            }
+            C collection = factory.apply((int) size);
+            if (parallel) {
+                @SuppressWarnings("unchecked")
+                T[] elements = (T[]) StreamSupport.stream(spliterator, true).toArray();
+                Collections.addAll(collection, elements);
+            } else {
+                spliterator.forEachRemaining(collection::add);
+            }
+            return collection;
+        }
+    }
+
+    /**
+     * A fixed-size list of the elements of the stream, in encounter order.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> toList(Stream<T> stream) {
+        try (Stream<T> closed = stream) {
+            return Arrays.asList((T[]) closed.toArray());
+        }
+    }
+
+    /**
+     * An unmodifiable List&lt;Integer&gt; view of the ints of the stream, which are
+     * kept in an int[] array.
+     */
+    public static List<Integer> toIntList(IntStream stream) {
+        try (IntStream closed = stream) {
+            return new IntArrayList(closed.toArray());
+        }
+    }
+
+    private static final class IntArrayList extends AbstractList<Integer> implements RandomAccess {
+
+        private final int[] values;
+
+        IntArrayList(int[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Integer get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            if (o instanceof Integer) {
+                int value = (Integer) o;
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] == value) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Spliterator<Integer> spliterator() {
+            return Arrays.spliterator(values);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package jun.java8.example;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * The merge sort which {@link Specializer} clones for every comparator class.
+ * It must only use public types, the clones live in another class loader.
+ */
+final class SortLoop<T> implements Specializer.Sorter<T> {
+
+    /**
+     * Runs up to this length are sorted by insertion.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private final Comparator<? super T> comparator;
+
+    SortLoop(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    @Override
+    public void sort(T[] values) {
+        if (values.length > INSERTION_SORT_THRESHOLD) {
+            mergeSort(values.clone(), values, 0, values.length);
+        } else {
+            insertionSort(values, 0, values.length);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<T> sorted(Stream<T> stream) {
+        T[] values = (T[]) stream.toArray();
+        sort(values);
+        return Arrays.stream(values);
+    }
+
+    /**
+     * Sort src[from, to) into dst[from, to), both hold the same elements on entry.
+     */
+    private void mergeSort(T[] src, T[] dst, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(dst, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(dst, src, from, mid);
+        mergeSort(dst, src, mid, to);
+        if (comparator.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, from, dst, from, to - from);
+            return;
+        }
+        for (int i = from, l = from, r = mid; i < to; i++) {
+            if (r >= to || l < mid && comparator.compare(src[l], src[r]) <= 0) {
+                dst[i] = src[l++];
+            } else {
+                dst[i] = src[r++];
+            }
+        }
+    }
+
+    private void insertionSort(T[] values, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            T value = values[i];
+            int j = i - 1;
+            while (j >= from && comparator.compare(values[j], value) > 0) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package jun.java8.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.function.BinaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * Reduction and sort loops with a class of their own for every functional target.
+ * </p>
+ * <p>
+ * The JIT inlines a call such as <code>operator.apply(a, b)</code> when its profile
+ * has seen one or two receiver classes. The loops of Stream.reduce() and sorted()
+ * live in a handful of JDK classes, so once an application passes Math::max, Integer::sum
+ * and a few lambdas through them, their call sites are megamorphic for every caller:
+ * each element costs an interface dispatch and nothing is inlined, the method
+ * reference which was fast in a micro benchmark is now slow in production.
+ * </p>
+ * <p>
+ * reducer() and sorter() load a fresh copy of a template loop class, from the same
+ * bytecode but through a new class loader, for every class of operator or comparator.
+ * Each copy is compiled with its own profile, which only ever sees one target, so the
+ * call is inlined whatever the rest of the application does. The copies are cached per
+ * target class, create the reducer once and reuse it: the loop is only fast once it
+ * has been compiled.
+ * </p>
+ * <pre>
+ * Specializer.Reducer&lt;Integer&gt; max = Specializer.reducer(Math::max);
+ * Optional&lt;Integer&gt; result = max.reduce(Stream.of(1, 2, 3));
+ * </pre>
+ */
+public final class Specializer {
+
+    public interface Reducer<T> {
+
+        Optional<T> reduce(T[] values);
+
+        Optional<T> reduce(Stream<T> stream);
+    }
+
+    public interface Sorter<T> {
+
+        /**
+         * Sort the array in place. The sort is stable.
+         */
+        void sort(T[] values);
+
+        Stream<T> sorted(Stream<T> stream);
+    }
+
+    private static final ClassValue<Constructor<?>> REDUCERS = new Cloner(ReduceLoop.class, BinaryOperator.class);
+    private static final ClassValue<Constructor<?>> SORTERS = new Cloner(SortLoop.class, Comparator.class);
+
+    private Specializer() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Reducer<T> reducer(BinaryOperator<T> operator) {
+        return (Reducer<T>) newInstance(REDUCERS.get(operator.getClass()), operator);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Sorter<T> sorter(Comparator<? super T> comparator) {
+        return (Sorter<T>) newInstance(SORTERS.get(comparator.getClass()), comparator);
+    }
+
+    private static Object newInstance(Constructor<?> constructor, Object target) {
+        try {
+            return constructor.newInstance(target);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException ex) {
+            throw new IllegalStateException("Cannot instantiate " + constructor.getDeclaringClass(), ex);
+        }
+    }
+
+    /**
+     * The constructor of a new copy of the template class, for each class it is asked for.
+     */
+    private static final class Cloner extends ClassValue<Constructor<?>> {
+
+        private final Class<?> template;
+        private final Class<?> parameterType;
+        private final byte[] bytecode;
+
+        Cloner(Class<?> template, Class<?> parameterType) {
+            this.template = template;
+            this.parameterType = parameterType;
+            this.bytecode = readBytecode(template);
+        }
+
+        @Override
+        protected Constructor<?> computeValue(Class<?> type) {
+            try {
+                Class<?> copy = new CloningClassLoader(template, bytecode).loadClass(template.getName());
+                Constructor<?> constructor = copy.getDeclaredConstructor(parameterType);
+                constructor.setAccessible(true);
+                return constructor;
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException("Cannot clone " + template, ex);
+            }
+        }
+
+        private static byte[] readBytecode(Class<?> template) {
+            String resource = template.getName().replace('.', '/') + ".class";
+            try (InputStream in = template.getClassLoader().getResourceAsStream(resource)) {
+                if (in == null) {
+                    throw new IllegalStateException("Cannot find " + resource);
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, n);
+                }
+                return out.toByteArray();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /**
+     * Defines the template class itself and delegates every other class to the
+     * loader of the template, so the copy implements the very same interfaces.
+     */
+    private static final class CloningClassLoader extends ClassLoader {
+
+        private final String name;
+        private final byte[] bytecode;
+
+        CloningClassLoader(Class<?> template, byte[] bytecode) {
+            super(template.getClassLoader());
+            this.name = template.getName();
+            this.bytecode = bytecode;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(this.name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> type = findLoadedClass(name);
+                if (type == null) {
+                    type = defineClass(name, bytecode, 0, bytecode.length);
+                }
+                if (resolve) {
+                    resolveClass(type);
+                }
+                return type;
+            }
+        }
+    }
+}
@@ -58,6 +58,13 @@ public class Application {
         if (value.isPresent()) {
             logger.info(value.get());
         }
+
+        // The same without allocating, the optional is a long.
+        long packed = PackedOptionalInt.of(1);
+        PackedOptionalInt.ifPresent(packed, logger::info);
+        if (PackedOptionalInt.isPresent(packed)) {
+            logger.info(PackedOptionalInt.get(packed));
+        }
     }
 
     private static void optional_absent() {
@@ -66,6 +73,11 @@ public class Application {
         logger.info(value.orElse(10));
         logger.info(value.orElseGet(() -> 10));
 
+        long packed = PackedOptionalInt.ofNullable(null);
+        logger.info(PackedOptionalInt.orElse(packed, 10));
+        logger.info(PackedOptionalInt.orElseGet(packed, () -> 10));
+        logger.info(PackedOptionalInt.toString(PackedOptionalInt.filter(PackedOptionalInt.of(-5), v -> v > 0)));
+
         try {
             value.orElseThrow(IllegalArgumentException::new);
         } catch (Exception ex) {
@@ -0,0 +1,102 @@
+package jun.java8.example;
+
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * An optional int packed into a long, for lookups which must not allocate.
+ * </p>
+ * <p>
+ * <code>Optional&lt;Integer&gt;</code> allocates an Optional and, outside the Integer
+ * cache, an Integer for every present value, and even OptionalInt is an object. Unless
+ * escape analysis manages to remove them, that is garbage for every lookup. Here a
+ * present value is stored in the low 32 bits of a non-negative long and the empty
+ * value is -1, so the result of a lookup is a plain long, returned in a register:
+ * </p>
+ * <pre>
+ * long found = PackedOptionalInt.of(42);
+ * int value = PackedOptionalInt.orElse(PackedOptionalInt.filter(found, v -&gt; v &gt; 0), 10);
+ * </pre>
+ * <p>
+ * The methods mirror those of Optional and take the packed long as first argument.
+ * Every int can be present, negative ones included.
+ * </p>
+ * <p>
+ * Only the longs returned by of(), ofNullable(), empty(), map() and filter() are
+ * packed optionals. The methods just test the sign, so any other non-negative long,
+ * e.g. a count or an index passed by mistake, reads as present with its low 32 bits
+ * as value, and any negative one reads as empty. Keep packed optionals in variables
+ * of their own and never do arithmetic on them.
+ * </p>
+ */
+public final class PackedOptionalInt {
+
+    public static final long EMPTY = -1L;
+
+    private static final long VALUE_MASK = 0xFFFFFFFFL;
+
+    private PackedOptionalInt() {
+    }
+
+    public static long of(int value) {
+        return value & VALUE_MASK;
+    }
+
+    public static long empty() {
+        return EMPTY;
+    }
+
+    public static long ofNullable(Integer value) {
+        return value == null ? EMPTY : of(value);
+    }
+
+    public static boolean isPresent(long optional) {
+        return optional >= 0;
+    }
+
+    public static int get(long optional) {
+        if (optional < 0) {
+            throw new NoSuchElementException("No value present");
+        }
+        return (int) optional;
+    }
+
+    public static int orElse(long optional, int other) {
+        return optional >= 0 ? (int) optional : other;
+    }
+
+    public static int orElseGet(long optional, IntSupplier other) {
+        return optional >= 0 ? (int) optional : other.getAsInt();
+    }
+
+    public static <X extends Throwable> int orElseThrow(long optional, Supplier<? extends X> exceptionSupplier)
+            throws X {
+        if (optional < 0) {
+            throw exceptionSupplier.get();
+        }
+        return (int) optional;
+    }
+
+    public static void ifPresent(long optional, IntConsumer consumer) {
+        if (optional >= 0) {
+            consumer.accept((int) optional);
+        }
+    }
+
+    public static long filter(long optional, IntPredicate predicate) {
+        return optional >= 0 && !predicate.test((int) optional) ? EMPTY : optional;
+    }
+
+    public static long map(long optional, IntUnaryOperator mapper) {
+        return optional >= 0 ? of(mapper.applyAsInt((int) optional)) : EMPTY;
+    }
+
+    public static String toString(long optional) {
+        return optional >= 0 ? "PackedOptionalInt[" + (int) optional + "]" : "PackedOptionalInt.empty";
+    }
+}
@@ -3,8 +3,15 @@ package jun.java8.example;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 
@@ -39,6 +46,7 @@ public class Application {
      */
     public static void main(String[] args) {
         stream_creation();
+        stream_mapped_file();
         stream_generation();
         stream_filter();
         stream_map();
@@ -61,12 +69,52 @@ public class Application {
         stream2.forEach(logger::info);
     }
 
+    /**
+     * A stream can also be created from a custom Spliterator. MappedRecordSpliterator
+     * memory-maps a file and hands out its lines without reading the file onto the heap,
+     * so the usual pipelines run unchanged on files far larger than the heap.
+     */
+    private static void stream_mapped_file() {
+        logger.info("stream mapped file: -------------------");
+        try {
+            Path path = Files.createTempFile("stream-example", ".txt");
+            try {
+                Files.write(path, Arrays.asList("1", "2", "3", "4", "5", "6", "7", "8", "9"));
+
+                logger.info("filter the lines of a mapped file:");
+                MappedRecordSpliterator.lines(path, StandardCharsets.UTF_8)
+                        .map(Integer::valueOf)
+                        .filter(n -> n % 2 == 0)
+                        .limit(5)
+                        .forEach(logger::info);
+
+                logger.info("map the lines of a mapped file in parallel:");
+                MappedRecordSpliterator.lines(path, StandardCharsets.UTF_8)
+                        .parallel()
+                        .map(Integer::valueOf)
+                        .map(n -> n + 10)
+                        .forEachOrdered(logger::info);
+
+                logger.info("count the lines of a mapped file:");
+                logger.info(MappedRecordSpliterator.lines(path, StandardCharsets.UTF_8).count());
+            } finally {
+                Files.delete(path);
+            }
+        } catch (IOException ex) {
+            logger.error("failed to stream the mapped file", ex);
+        }
+    }
+
     private static void stream_generation() {
         logger.info("stream generation: -------------------");
         logger.info("create a random stream:");
         Stream<Integer> stream = Stream.generate(
                 () -> (new Random()).nextInt(100));
         stream.limit(10).forEach(logger::info);
+
+        logger.info("create a sized random stream:");
+        IntStream ints = RandomStreams.ints(10, 100);
+        ints.forEach(logger::info);
     }
 
     /**
@@ -89,6 +137,11 @@ public class Application {
         List<Integer> result = stream3.collect(Collectors.toList());
         result.forEach(logger::info);
 
+        // sorted().limit(k) sorts every element, TopK keeps a heap of k elements per thread.
+        Stream<Integer> stream4 = Stream.of(1, 2, 3, 4, 5, 6, 7, 8, 9);
+        stream4.parallel().collect(TopK.topK(3, Comparator.reverseOrder())).forEach(logger::info);
+        logger.info(Arrays.toString(TopK.smallest(IntStream.of(9, 8, 7, 6, 5, 4, 3, 2, 1), 3)));
+
         // ERROR: Exception in thread "main" java.lang.IllegalStateException: stream has already been operated upon or closed
 //        Integer[] number = stream3.toArray(Integer[]::new);
 //        Arrays.asList(number).forEach(logger::info);
@@ -106,6 +159,12 @@ public class Application {
         Stream<Integer> stream = Stream.of(1, 2, 3, 4, 5, 6, 7, 8, 9);
         Stream.of(stream.map(n -> n + 10).toArray(Integer[]::new)).
                 forEach(logger::info);
+
+        // The same pipeline fused into a single loop over an int array, without boxing.
+        int[] mapped = FusedIntPipeline.of(1, 2, 3, 4, 5, 6, 7, 8, 9)
+                .map(n -> n + 10)
+                .toArray();
+        logger.info(Arrays.toString(mapped));
     }
 
     /**
@@ -120,6 +179,15 @@ public class Application {
 
         Stream<Integer> stream = Stream.of(1, 2, 3, 4, 5, 6, 7, 8, 9);
         stream.sorted(Comparator.reverseOrder()).forEach(logger::info);
+
+        // sorted() buffers the whole stream in memory, ExternalSort spills sorted runs
+        // to temporary files and merges them back, here after every 4 elements.
+        logger.info("sort a stream larger than the spill threshold:");
+        ExternalSort<Integer> sort = new ExternalSort<>(Comparator.<Integer>reverseOrder(), ExternalSort.INTEGER_CODEC)
+                .setSpillThreshold(4);
+        try (Stream<Integer> sorted = sort.sort(Stream.of(1, 2, 3, 4, 5, 6, 7, 8, 9))) {
+            sorted.forEach(logger::info);
+        }
     }
 
     /**
@@ -144,6 +212,12 @@ public class Application {
         Stream<Integer> secondStream = Stream.of(4, 5, 6);
         Stream<Integer> resultingStream = Stream.concat(firstStream, secondStream);
         logger.info(resultingStream.collect(Collectors.toList()));
+
+        // Chaining Stream.concat() over many streams nests one spliterator per call,
+        // ConcatSpliterator.concatAll() keeps all the sources in one flat spliterator.
+        Stream<Integer> concatenated = ConcatSpliterator.concatAll(
+                Stream.of(1, 2, 3), Stream.of(4, 5, 6), Stream.of(7, 8, 9));
+        logger.info(concatenated.parallel().collect(Collectors.toList()));
     }
 
     /**
@@ -170,6 +244,20 @@ public class Application {
 
         Stream<String> stream4 = strings.stream();
         logger.info(stream4.collect(Collectors.joining(",", "{", "}")));
+
+        // Joining.joining() builds the result once with the exact length, and
+        // Joining.writeTo() streams the joined elements into a channel without
+        // building the String at all.
+        Stream<String> stream5 = strings.stream().parallel();
+        logger.info(stream5.collect(Joining.joining(",", "{", "}")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            Joining.writeTo(strings.stream(), Channels.newChannel(out), StandardCharsets.UTF_8, ",", "{", "}");
+            logger.info(new String(out.toByteArray(), StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            logger.error("failed to write the joined stream", ex);
+        }
     }
 
     /**
@@ -188,6 +276,12 @@ public class Application {
         Stream<String> stream2 = Stream.of("A", "B", "C");
         String reduced = stream2.reduce("-- ", (x, y) -> x + y);
         logger.info(reduced);
+
+        // x + y copies the accumulated string on every step, a Rope links the pieces
+        // into a balanced tree and copies the characters once in toString().
+        Stream<String> stream3 = Stream.of("A", "B", "C");
+        Rope rope = stream3.parallel().map(Rope::of).reduce(Rope.EMPTY, Rope::concat);
+        logger.info(Rope.of("-- ").concat(rope));
     }
 
     /**
@@ -217,5 +311,10 @@ public class Application {
         List<String> names = Arrays.asList("Amitabh", "Aman", "Smith");
         logger.info(names.stream().count());
         logger.info(names.stream().filter(x -> x.startsWith("A")).count());
+
+        // Counting.count() skips the traversal for SIZED streams, and approximateDistinct()
+        // estimates distinct().count() in fixed memory.
+        logger.info(Counting.count(names.stream()));
+        logger.info(names.stream().map(x -> x.substring(0, 1)).collect(Counting.approximateDistinct()));
     }
 }
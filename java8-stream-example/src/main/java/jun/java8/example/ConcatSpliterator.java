@@ -0,0 +1,189 @@
+package jun.java8.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ * A flat Spliterator over the elements of many source spliterators, one after another.
+ * </p>
+ * <p>
+ * Chaining Stream.concat() over n streams builds a tree of nested spliterators that
+ * is n levels deep on one side, which costs stack depth and splits badly in parallel.
+ * This spliterator keeps the sources in one array: trySplit() hands out the first half
+ * of the remaining sources, and only when a single source is left does it split that
+ * source itself.
+ * </p>
+ * <p>
+ * Like Stream.concat(), the result is ORDERED only if all the sources are ordered, and
+ * it is SIZED only if all the sources are sized.
+ * </p>
+ */
+public class ConcatSpliterator<T> implements Spliterator<T> {
+
+    private final Spliterator<? extends T>[] sources;
+    private final int fence;
+    private int index;
+    // Recomputed after every split, which may change those of the remaining sources.
+    private int characteristics;
+
+    private ConcatSpliterator(Spliterator<? extends T>[] sources, int index, int fence) {
+        this.sources = sources;
+        this.index = index;
+        this.fence = fence;
+        this.characteristics = computeCharacteristics();
+    }
+
+    /**
+     * The characteristics shared by all the remaining sources, out of ORDERED, SIZED,
+     * SUBSIZED, NONNULL and IMMUTABLE. SORTED and DISTINCT are dropped even when a
+     * single source is left, since this spliterator has no comparator to report.
+     */
+    private int computeCharacteristics() {
+        int characteristics = ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        for (int i = index; i < fence; i++) {
+            characteristics &= sources[i].characteristics();
+        }
+        if ((characteristics & SIZED) != 0 && estimateSize() == Long.MAX_VALUE) {
+            characteristics &= ~(SIZED | SUBSIZED);
+        }
+        return characteristics;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Spliterator<T> of(List<? extends Spliterator<? extends T>> sources) {
+        Spliterator<? extends T>[] array = sources.toArray(new Spliterator[0]);
+        return new ConcatSpliterator<>(array, 0, array.length);
+    }
+
+    /**
+     * <p>
+     * Create a lazily concatenated stream whose elements are all the elements of the
+     * given streams, in order.
+     * </p>
+     * <ol>
+     *     <li>The resulting stream is ordered if all of the input streams are ordered.</li>
+     *     <li>The resulting stream is parallel if any of the input streams is parallel.</li>
+     *     <li>When the resulting stream is closed, the close handlers of all the input
+     *     streams are invoked, in order, even if one of them throws.</li>
+     * </ol>
+     */
+    @SafeVarargs
+    public static <T> Stream<T> concatAll(Stream<? extends T>... streams) {
+        List<Spliterator<? extends T>> sources = new ArrayList<>(streams.length);
+        boolean parallel = false;
+        for (Stream<? extends T> stream : streams) {
+            sources.add(stream.spliterator());
+            parallel |= stream.isParallel();
+        }
+        return StreamSupport.stream(of(sources), parallel).onClose(() -> closeAll(streams));
+    }
+
+    /**
+     * Create a lazily concatenated stream over the elements of the given spliterators.
+     */
+    public static <T> Stream<T> concatAll(List<? extends Spliterator<? extends T>> sources, boolean parallel) {
+        return StreamSupport.stream(of(sources), parallel);
+    }
+
+    private static void closeAll(Stream<?>[] streams) {
+        RuntimeException failure = null;
+        for (Stream<?> stream : streams) {
+            try {
+                stream.close();
+            } catch (RuntimeException ex) {
+                if (failure == null) {
+                    failure = ex;
+                } else if (failure != ex) {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (index < fence) {
+            if (sources[index].tryAdvance(action)) {
+                return true;
+            }
+            sources[index++] = null;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        while (index < fence) {
+            sources[index].forEachRemaining(action);
+            sources[index++] = null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Spliterator<T> trySplit() {
+        int remaining = fence - index;
+        if (remaining > 1) {
+            int mid = index + balancedSplitPoint();
+            Spliterator<T> prefix = mid - index == 1
+                    ? (Spliterator<T>) sources[index]
+                    : new ConcatSpliterator<>(sources, index, mid);
+            index = mid;
+            characteristics = computeCharacteristics();
+            return prefix;
+        }
+        if (remaining == 1) {
+            Spliterator<T> prefix = (Spliterator<T>) sources[index].trySplit();
+            characteristics = computeCharacteristics();
+            return prefix;
+        }
+        return null;
+    }
+
+    /**
+     * The number of sources for the prefix, chosen so that the prefix holds about
+     * half of the estimated elements but at least one source and at most all but one.
+     */
+    private int balancedSplitPoint() {
+        long total = estimateSize();
+        if (total == Long.MAX_VALUE) {
+            return (fence - index) / 2;
+        }
+        long half = total / 2;
+        long sum = 0;
+        int count = 0;
+        while (index + count < fence - 1) {
+            sum += sources[index + count].estimateSize();
+            count++;
+            if (sum >= half) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long estimateSize() {
+        long size = 0;
+        for (int i = index; i < fence; i++) {
+            size += sources[i].estimateSize();
+            if (size < 0) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
@@ -0,0 +1,64 @@
+package jun.java8.example;
+
+import java.util.Spliterator;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ * Counting operations for large streams.
+ * </p>
+ * <ul>
+ *     <li>count() returns the size of a SIZED stream without traversing it, and
+ *     traverses the stream only when the size is not known in advance.</li>
+ *     <li>approximateDistinct() estimates the number of distinct elements with a
+ *     {@link HyperLogLog} sketch. Unlike <code>distinct().count()</code>, which keeps
+ *     every distinct element in a HashSet, the memory used is fixed by the precision,
+ *     and parallel collection merges one sketch per thread.</li>
+ * </ul>
+ */
+public final class Counting {
+
+    private Counting() {
+    }
+
+    public static long count(Stream<?> stream) {
+        Spliterator<?> spliterator = stream.spliterator();
+        long size = spliterator.getExactSizeIfKnown();
+        if (size >= 0) {
+            return size;
+        }
+        return StreamSupport.stream(spliterator, stream.isParallel()).count();
+    }
+
+    /**
+     * Estimate the number of distinct elements by their hashCode().
+     */
+    public static <T> Collector<T, ?, Long> approximateDistinct() {
+        return approximateDistinct(HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    public static <T> Collector<T, ?, Long> approximateDistinct(int precision) {
+        return Collector.of(
+                () -> new HyperLogLog(precision),
+                HyperLogLog::add,
+                HyperLogLog::merge,
+                HyperLogLog::estimate,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Estimate the number of distinct elements by a 64-bit hash, which avoids the
+     * collisions of 32-bit hashCode() values on very large cardinalities.
+     */
+    public static <T> Collector<T, ?, Long> approximateDistinct(int precision, ToLongFunction<? super T> hash) {
+        return Collector.of(
+                () -> new HyperLogLog(precision),
+                (sketch, value) -> sketch.add(hash.applyAsLong(value)),
+                HyperLogLog::merge,
+                HyperLogLog::estimate,
+                Collector.Characteristics.UNORDERED);
+    }
+}
@@ -0,0 +1,280 @@
+package jun.java8.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ * A sorted() operation for streams that do not fit on the heap.
+ * </p>
+ * <p>
+ * The source is cut into chunks of spillThreshold elements, every chunk is sorted
+ * with {@link Arrays#parallelSort} (which runs on the fork/join common pool) and
+ * written to a temporary file as a sorted run. The returned stream lazily k-way
+ * merges the runs, so at most one chunk plus one element per run is held in memory.
+ * If the whole source fits in a single chunk nothing is written to disk.
+ * </p>
+ * <p>
+ * The returned stream should be closed, e.g. with try-with-resources, to delete the
+ * temporary files when it is not consumed to the end.
+ * </p>
+ */
+public class ExternalSort<T> {
+
+    /**
+     * Writes and reads the elements of a sorted run.
+     */
+    public interface Codec<T> {
+
+        void write(DataOutput out, T value) throws IOException;
+
+        T read(DataInput in) throws IOException;
+    }
+
+    public static final Codec<Integer> INTEGER_CODEC = new Codec<Integer>() {
+        @Override
+        public void write(DataOutput out, Integer value) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    public static final Codec<String> STRING_CODEC = new Codec<String>() {
+        @Override
+        public void write(DataOutput out, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    private static final int DEFAULT_SPILL_THRESHOLD = 1 << 20;
+    private static final int INITIAL_CHUNK_SIZE = 1024;
+
+    private final Comparator<? super T> comparator;
+    private final Codec<T> codec;
+    private int spillThreshold = DEFAULT_SPILL_THRESHOLD;
+
+    public ExternalSort(Comparator<? super T> comparator, Codec<T> codec) {
+        this.comparator = comparator;
+        this.codec = codec;
+    }
+
+    /**
+     * Set the number of elements sorted in memory before a run is written to disk.
+     */
+    public ExternalSort<T> setSpillThreshold(int spillThreshold) {
+        if (spillThreshold <= 0) {
+            throw new IllegalArgumentException("spillThreshold must be positive: " + spillThreshold);
+        }
+        this.spillThreshold = spillThreshold;
+        return this;
+    }
+
+    /**
+     * Consume the source and return a stream of its elements in comparator order.
+     * The sort is stable.
+     */
+    @SuppressWarnings("unchecked")
+    public Stream<T> sort(Stream<T> source) {
+        List<Run<T>> runs = new ArrayList<>();
+        try {
+            Iterator<T> iterator = source.iterator();
+            T[] chunk = (T[]) new Object[Math.min(spillThreshold, INITIAL_CHUNK_SIZE)];
+            int size = 0;
+            while (iterator.hasNext()) {
+                if (size == chunk.length) {
+                    chunk = Arrays.copyOf(chunk, (int) Math.min(spillThreshold, 2L * size));
+                }
+                chunk[size++] = iterator.next();
+                if (size == spillThreshold) {
+                    if (!iterator.hasNext() && runs.isEmpty()) {
+                        break;
+                    }
+                    runs.add(spill(chunk, size, runs.size()));
+                    size = 0;
+                }
+            }
+            if (runs.isEmpty()) {
+                Arrays.parallelSort(chunk, 0, size, comparator);
+                return Arrays.stream(chunk, 0, size).onClose(source::close);
+            }
+            if (size > 0) {
+                runs.add(spill(chunk, size, runs.size()));
+            }
+        } catch (IOException ex) {
+            closeAll(runs);
+            throw new UncheckedIOException(ex);
+        } catch (RuntimeException | Error ex) {
+            closeAll(runs);
+            throw ex;
+        }
+        MergeIterator merge = new MergeIterator(runs);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(merge, Spliterator.ORDERED), false)
+                .onClose(merge::close)
+                .onClose(source::close);
+    }
+
+    private Run<T> spill(T[] chunk, int size, int order) throws IOException {
+        Arrays.parallelSort(chunk, 0, size, comparator);
+        Path file = Files.createTempFile("external-sort", ".run");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (int i = 0; i < size; i++) {
+                codec.write(out, chunk[i]);
+                chunk[i] = null;
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+        return new Run<>(file, order, codec);
+    }
+
+    private static void closeAll(List<? extends Closeable> closeables) {
+        for (Closeable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // best effort clean up of temporary files
+            }
+        }
+    }
+
+    /**
+     * A sorted run on disk together with its current head element.
+     */
+    private static final class Run<T> implements Closeable {
+
+        private final Path file;
+        private final int order;
+        private final Codec<T> codec;
+        private DataInputStream in;
+        private T head;
+
+        Run(Path file, int order, Codec<T> codec) {
+            this.file = file;
+            this.order = order;
+            this.codec = codec;
+        }
+
+        /**
+         * Read the next element into head, return false at the end of the run.
+         */
+        boolean advance() throws IOException {
+            if (in == null) {
+                in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+            }
+            try {
+                head = codec.read(in);
+                return true;
+            } catch (EOFException ex) {
+                head = null;
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (in != null) {
+                    in.close();
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private final class MergeIterator implements Iterator<T>, Closeable {
+
+        private final List<Run<T>> runs;
+        private PriorityQueue<Run<T>> queue;
+
+        MergeIterator(List<Run<T>> runs) {
+            this.runs = runs;
+        }
+
+        private PriorityQueue<Run<T>> queue() {
+            if (queue == null) {
+                Comparator<Run<T>> byHead = (a, b) -> comparator.compare(a.head, b.head);
+                queue = new PriorityQueue<>(runs.size(), byHead.thenComparingInt(run -> run.order));
+                try {
+                    for (Run<T> run : runs) {
+                        if (run.advance()) {
+                            queue.add(run);
+                        } else {
+                            run.close();
+                        }
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            return queue;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue().isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Run<T> run = queue().poll();
+            if (run == null) {
+                throw new NoSuchElementException();
+            }
+            T value = run.head;
+            try {
+                if (run.advance()) {
+                    queue.add(run);
+                } else {
+                    run.close();
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return value;
+        }
+
+        @Override
+        public void close() {
+            closeAll(runs);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package jun.java8.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * A filter/map/limit pipeline over an int array which is evaluated as one loop.
+ * </p>
+ * <p>
+ * A java.util.stream pipeline passes every element through a chain of Sink objects,
+ * one virtual call per stage, and a Stream&lt;Integer&gt; boxes every element on top
+ * of that. The common shapes of this pipeline, an optional filter before and after
+ * an optional map and an optional trailing limit, are fused instead into a single
+ * loop over the primitive array which calls the lambdas directly.
+ * </p>
+ * <p>
+ * Any other shape, e.g. two maps or a limit in the middle, falls back to the
+ * equivalent IntStream pipeline, so the result is always the same as stream().
+ * </p>
+ */
+public final class FusedIntPipeline {
+
+    private enum Kind {
+        FILTER, MAP, LIMIT
+    }
+
+    private static final class Stage {
+
+        final Kind kind;
+        final Object function;
+        final long limit;
+
+        Stage(Kind kind, Object function, long limit) {
+            this.kind = kind;
+            this.function = function;
+            this.limit = limit;
+        }
+    }
+
+    private final int[] values;
+    private final List<Stage> stages = new ArrayList<>();
+
+    // The fused form, set by compile().
+    private IntPredicate before;
+    private IntUnaryOperator mapper;
+    private IntPredicate after;
+    private long maxSize;
+
+    private FusedIntPipeline(int[] values) {
+        this.values = values;
+    }
+
+    public static FusedIntPipeline of(int... values) {
+        return new FusedIntPipeline(values);
+    }
+
+    public FusedIntPipeline filter(IntPredicate predicate) {
+        stages.add(new Stage(Kind.FILTER, predicate, 0));
+        return this;
+    }
+
+    public FusedIntPipeline map(IntUnaryOperator operator) {
+        stages.add(new Stage(Kind.MAP, operator, 0));
+        return this;
+    }
+
+    public FusedIntPipeline limit(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(Long.toString(maxSize));
+        }
+        stages.add(new Stage(Kind.LIMIT, null, maxSize));
+        return this;
+    }
+
+    /**
+     * The equivalent java.util.stream pipeline.
+     */
+    public IntStream stream() {
+        IntStream stream = IntStream.of(values);
+        for (Stage stage : stages) {
+            switch (stage.kind) {
+                case FILTER:
+                    stream = stream.filter((IntPredicate) stage.function);
+                    break;
+                case MAP:
+                    stream = stream.map((IntUnaryOperator) stage.function);
+                    break;
+                default:
+                    stream = stream.limit(stage.limit);
+                    break;
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * Whether the pipeline runs as a single fused loop rather than as a stream.
+     */
+    public boolean isFused() {
+        return compile();
+    }
+
+    public int[] toArray() {
+        if (!compile()) {
+            return stream().toArray();
+        }
+        int[] out = new int[(int) Math.min(values.length, maxSize)];
+        int size = 0;
+        for (int value : values) {
+            if (size == out.length) {
+                break;
+            }
+            if (before != null && !before.test(value)) {
+                continue;
+            }
+            if (mapper != null) {
+                value = mapper.applyAsInt(value);
+            }
+            if (after != null && !after.test(value)) {
+                continue;
+            }
+            out[size++] = value;
+        }
+        return size == out.length ? out : Arrays.copyOf(out, size);
+    }
+
+    public int reduce(int identity, IntBinaryOperator operator) {
+        if (!compile()) {
+            return stream().reduce(identity, operator);
+        }
+        int result = identity;
+        long size = 0;
+        for (int value : values) {
+            if (size == maxSize) {
+                break;
+            }
+            if (before != null && !before.test(value)) {
+                continue;
+            }
+            if (mapper != null) {
+                value = mapper.applyAsInt(value);
+            }
+            if (after != null && !after.test(value)) {
+                continue;
+            }
+            result = operator.applyAsInt(result, value);
+            size++;
+        }
+        return result;
+    }
+
+    public int sum() {
+        return reduce(0, Integer::sum);
+    }
+
+    public long count() {
+        if (!compile()) {
+            return stream().count();
+        }
+        if (before == null && after == null) {
+            return Math.min(values.length, maxSize);
+        }
+        long count = 0;
+        for (int value : values) {
+            if (count == maxSize) {
+                break;
+            }
+            if (before != null && !before.test(value)) {
+                continue;
+            }
+            if (mapper != null) {
+                value = mapper.applyAsInt(value);
+            }
+            if (after != null && !after.test(value)) {
+                continue;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Match the stages against [filter] [map] [filter] [limit].
+     */
+    private boolean compile() {
+        before = null;
+        mapper = null;
+        after = null;
+        maxSize = Long.MAX_VALUE;
+        int i = 0;
+        int n = stages.size();
+        if (i < n && stages.get(i).kind == Kind.FILTER) {
+            before = (IntPredicate) stages.get(i++).function;
+        }
+        if (i < n && stages.get(i).kind == Kind.MAP) {
+            mapper = (IntUnaryOperator) stages.get(i++).function;
+        }
+        if (i < n && stages.get(i).kind == Kind.FILTER) {
+            after = (IntPredicate) stages.get(i++).function;
+        }
+        if (i < n && stages.get(i).kind == Kind.LIMIT) {
+            maxSize = stages.get(i++).limit;
+        }
+        return i == n;
+    }
+}
@@ -0,0 +1,118 @@
+package jun.java8.example;
+
+/**
+ * <p>
+ * A HyperLogLog sketch estimating the number of distinct values added to it.
+ * </p>
+ * <p>
+ * The sketch uses 2^precision one-byte registers whatever the number of values,
+ * e.g. 16KB for the default precision of 14, with a standard error of about
+ * 1.04 / sqrt(2^precision), i.e. 0.8%. Two sketches of the same precision can be
+ * merged, which makes the sketch a natural container for parallel collection.
+ * </p>
+ */
+public class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be between " + MIN_PRECISION
+                    + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Add a value by its 64-bit hash, which does not have to be well distributed.
+     */
+    public void add(long hash) {
+        long mixed = mix(hash);
+        int index = (int) (mixed >>> (64 - precision));
+        // The guard bit bounds the rank by 64 - precision + 1.
+        long rest = (mixed << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Add an object by its hashCode().
+     */
+    public void add(Object value) {
+        add(value == null ? 0L : value.hashCode());
+    }
+
+    /**
+     * Merge another sketch of the same precision into this one.
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("precision mismatch: " + precision + " and " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        // Linear counting is more accurate for small cardinalities.
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * The MurmurHash3 64-bit finalizer, spreads the bits of hashCode() values.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
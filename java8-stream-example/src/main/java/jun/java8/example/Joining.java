@@ -0,0 +1,192 @@
+package jun.java8.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * Alternatives to {@link java.util.stream.Collectors#joining} for long streams.
+ * </p>
+ * <ul>
+ *     <li>joining() keeps the toString() of every element and builds the result
+ *     once, in a StringBuilder presized to the exact length. Parallel partial results
+ *     are merged by appending the lists of Strings, so the characters of a String
+ *     element are copied only once, into the result. A mutable element such as a
+ *     StringBuilder is copied when it is collected, changing it afterwards does not
+ *     change the result.</li>
+ *     <li>writeTo() does not build a String at all, it encodes the elements into a
+ *     fixed size buffer which is flushed to a channel whenever it is full, so the
+ *     memory used is constant however long the stream is. A surrogate pair split
+ *     between two elements is encoded as one character.</li>
+ * </ul>
+ */
+public final class Joining {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private Joining() {
+    }
+
+    public static Collector<CharSequence, ?, String> joining() {
+        return joining("", "", "");
+    }
+
+    public static Collector<CharSequence, ?, String> joining(CharSequence delimiter) {
+        return joining(delimiter, "", "");
+    }
+
+    public static Collector<CharSequence, ?, String> joining(CharSequence delimiter,
+                                                             CharSequence prefix,
+                                                             CharSequence suffix) {
+        String delimiterString = delimiter.toString();
+        String prefixString = prefix.toString();
+        String suffixString = suffix.toString();
+        return Collector.of(
+                Parts::new,
+                Parts::add,
+                Parts::merge,
+                parts -> parts.join(delimiterString, prefixString, suffixString));
+    }
+
+    /**
+     * Write the elements of the stream, separated by the delimiter and enclosed by
+     * prefix and suffix, to the channel. The elements are written in encounter order.
+     *
+     * @return the number of bytes written
+     */
+    public static long writeTo(Stream<? extends CharSequence> stream, WritableByteChannel channel,
+                               Charset charset, CharSequence delimiter,
+                               CharSequence prefix, CharSequence suffix) throws IOException {
+        ChannelWriter writer = new ChannelWriter(channel, charset);
+        writer.write(prefix);
+        try {
+            boolean[] first = {true};
+            stream.forEachOrdered(element -> {
+                if (!first[0]) {
+                    writer.writeUnchecked(delimiter);
+                }
+                first[0] = false;
+                writer.writeUnchecked(element);
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writer.write(suffix);
+        return writer.finish();
+    }
+
+    /**
+     * The elements collected by one thread and their total length.
+     */
+    private static final class Parts {
+
+        private final List<String> elements = new ArrayList<>();
+        private long length;
+
+        void add(CharSequence element) {
+            String string = element.toString();
+            elements.add(string);
+            length += string.length();
+        }
+
+        Parts merge(Parts other) {
+            elements.addAll(other.elements);
+            length += other.length;
+            return this;
+        }
+
+        String join(String delimiter, String prefix, String suffix) {
+            long total = length + prefix.length() + suffix.length()
+                    + (long) Math.max(0, elements.size() - 1) * delimiter.length();
+            if (total > Integer.MAX_VALUE) {
+                throw new OutOfMemoryError("joined length exceeds Integer.MAX_VALUE");
+            }
+            StringBuilder builder = new StringBuilder((int) total);
+            builder.append(prefix);
+            for (int i = 0; i < elements.size(); i++) {
+                if (i > 0) {
+                    builder.append(delimiter);
+                }
+                builder.append(elements.get(i));
+            }
+            return builder.append(suffix).toString();
+        }
+    }
+
+    private static final class ChannelWriter {
+
+        private final WritableByteChannel channel;
+        private final CharsetEncoder encoder;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long written;
+        // The chars the encoder could not encode yet at the end of the previous write,
+        // e.g. a high surrogate whose low surrogate starts the next element.
+        private String pending;
+
+        ChannelWriter(WritableByteChannel channel, Charset charset) {
+            this.channel = channel;
+            this.encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        void write(CharSequence chars) throws IOException {
+            CharBuffer in = CharBuffer.wrap(pending == null ? chars : pending + chars);
+            pending = null;
+            while (true) {
+                CoderResult result = encoder.encode(in, buffer, false);
+                if (result.isOverflow()) {
+                    flush();
+                } else if (result.isUnderflow()) {
+                    if (in.hasRemaining()) {
+                        pending = in.toString();
+                    }
+                    return;
+                } else {
+                    result.throwException();
+                }
+            }
+        }
+
+        void writeUnchecked(CharSequence chars) {
+            try {
+                write(chars);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        long finish() throws IOException {
+            // A surrogate left pending at the end is malformed, the encoder replaces it.
+            CharBuffer rest = CharBuffer.wrap(pending == null ? "" : pending);
+            pending = null;
+            while (encoder.encode(rest, buffer, true).isOverflow()) {
+                flush();
+            }
+            while (encoder.flush(buffer).isOverflow()) {
+                flush();
+            }
+            flush();
+            return written;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package jun.java8.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ * A Spliterator over the delimiter separated records of a memory-mapped file.
+ * The file is mapped with {@link FileChannel#map} and every record is handed out
+ * as a read-only {@link ByteBuffer} slice of the mapping, so the data never has
+ * to be copied onto the heap before it reaches the stream pipeline.
+ * </p>
+ * <p>
+ * A single mapping can not exceed {@link Integer#MAX_VALUE} bytes, so large files
+ * are mapped as several chunks, each of them ending on a record boundary.
+ * trySplit() first splits between chunks and then at the first delimiter after
+ * the middle of the remaining bytes, which lets parallel() streams spread the
+ * file across cores without ever cutting a record in two.
+ * </p>
+ */
+public class MappedRecordSpliterator implements Spliterator<ByteBuffer> {
+
+    /**
+     * Remaining ranges smaller than this are not worth splitting.
+     */
+    private static final int MIN_SPLIT_SIZE = 4096;
+
+    private final ByteBuffer[] chunks;
+    private final byte delimiter;
+    private final int fence;
+    private int index;
+    private ByteBuffer buffer;
+
+    private MappedRecordSpliterator(ByteBuffer[] chunks, byte delimiter,
+                                    int index, int fence, ByteBuffer buffer) {
+        this.chunks = chunks;
+        this.delimiter = delimiter;
+        this.index = index;
+        this.fence = fence;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Create a stream of the records of the file, each record is a slice of the
+     * mapped file without the trailing delimiter.
+     */
+    public static Stream<ByteBuffer> records(Path path, byte delimiter) throws IOException {
+        ByteBuffer[] chunks = map(path, delimiter, Integer.MAX_VALUE);
+        ByteBuffer first = chunks.length > 0 ? chunks[0].duplicate() : null;
+        return StreamSupport.stream(
+                new MappedRecordSpliterator(chunks, delimiter, 0, chunks.length, first), false);
+    }
+
+    /**
+     * Create a stream of the lines of the file, decoded with the given charset.
+     * Only the String of every line ends up on the heap.
+     */
+    public static Stream<String> lines(Path path, Charset charset) throws IOException {
+        return records(path, (byte) '\n').map(record -> decodeLine(record, charset));
+    }
+
+    private static String decodeLine(ByteBuffer record, Charset charset) {
+        int length = record.remaining();
+        if (length > 0 && record.get(record.position() + length - 1) == '\r') {
+            record.limit(record.limit() - 1);
+        }
+        return charset.decode(record).toString();
+    }
+
+    /**
+     * Map the file as chunks of at most maxChunkSize bytes, every chunk except
+     * the last one ends with the delimiter.
+     */
+    private static ByteBuffer[] map(Path path, byte delimiter, int maxChunkSize) throws IOException {
+        List<ByteBuffer> chunks = new ArrayList<>();
+        // The mappings stay valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long length = Math.min(maxChunkSize, size - start);
+                ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                if (start + length < size) {
+                    int end = (int) length - 1;
+                    while (end >= 0 && chunk.get(end) != delimiter) {
+                        end--;
+                    }
+                    if (end < 0) {
+                        throw new IOException("record at offset " + start + " exceeds " + maxChunkSize + " bytes");
+                    }
+                    length = end + 1;
+                    chunk.limit((int) length);
+                }
+                chunks.add(chunk.slice().asReadOnlyBuffer());
+                start += length;
+            }
+        }
+        return chunks.toArray(new ByteBuffer[0]);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super ByteBuffer> action) {
+        while (buffer != null) {
+            if (buffer.hasRemaining()) {
+                action.accept(nextRecord());
+                return true;
+            }
+            nextChunk();
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super ByteBuffer> action) {
+        while (buffer != null) {
+            while (buffer.hasRemaining()) {
+                action.accept(nextRecord());
+            }
+            nextChunk();
+        }
+    }
+
+    private ByteBuffer nextRecord() {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        int end = indexOfDelimiter(start, limit);
+        ByteBuffer record = buffer.duplicate();
+        record.limit(end);
+        buffer.position(end < limit ? end + 1 : limit);
+        return record.slice();
+    }
+
+    private void nextChunk() {
+        index++;
+        buffer = index < fence ? chunks[index].duplicate() : null;
+    }
+
+    private int indexOfDelimiter(int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == delimiter) {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    @Override
+    public Spliterator<ByteBuffer> trySplit() {
+        if (buffer == null) {
+            return null;
+        }
+        // Split at chunk boundaries first, the prefix keeps the partially traversed chunk.
+        if (fence - index > 1) {
+            int mid = (index + fence) >>> 1;
+            Spliterator<ByteBuffer> prefix =
+                    new MappedRecordSpliterator(chunks, delimiter, index, mid, buffer);
+            index = mid;
+            buffer = chunks[mid].duplicate();
+            return prefix;
+        }
+        int start = buffer.position();
+        int limit = buffer.limit();
+        if (limit - start < MIN_SPLIT_SIZE) {
+            return null;
+        }
+        int end = indexOfDelimiter(start + (limit - start) / 2, limit);
+        if (end >= limit - 1) {
+            return null;
+        }
+        ByteBuffer head = buffer.duplicate();
+        head.limit(end + 1);
+        buffer.position(end + 1);
+        return new MappedRecordSpliterator(chunks, delimiter, index, index + 1, head);
+    }
+
+    /**
+     * The estimate is the number of remaining bytes, which is an upper bound
+     * of the number of remaining records.
+     */
+    @Override
+    public long estimateSize() {
+        if (buffer == null) {
+            return 0;
+        }
+        long size = buffer.remaining();
+        for (int i = index + 1; i < fence; i++) {
+            size += chunks[i].capacity();
+        }
+        return size;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
@@ -0,0 +1,63 @@
+package jun.java8.example;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * <p>
+ * Sized streams of random numbers for generating test data.
+ * </p>
+ * <p>
+ * <code>Stream.generate(() -> new Random().nextInt(bound)).limit(count)</code> creates
+ * and seeds a Random for every element, boxes every element, and in parallel it is an
+ * unordered stream of unknown size which splits poorly. The streams returned here are
+ * backed by a {@link SplittableRandom}: they are SIZED and SUBSIZED with exactly
+ * count elements, there is no contention between threads, and nothing is allocated
+ * per element. Without a seed every split forks its own generator; with a seed every
+ * element is a hash of the seed and its index, so the output does not depend on how
+ * the stream is split.
+ * </p>
+ */
+public final class RandomStreams {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private RandomStreams() {
+    }
+
+    /**
+     * A stream of count random ints in [0, bound).
+     */
+    public static IntStream ints(long count, int bound) {
+        return new SplittableRandom().ints(count, 0, bound);
+    }
+
+    /**
+     * A reproducible stream of count random ints in [0, bound). Each element is
+     * computed from the seed and its index alone, so for a given seed the same
+     * elements are produced whether the stream runs sequentially or in parallel, and
+     * however it is split.
+     */
+    public static IntStream ints(long count, int bound, long seed) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+        // The high 32 bits of the hash, scaled to [0, bound) by a multiply and a shift.
+        return LongStream.range(0, count)
+                .mapToInt(i -> (int) (((mix64(seed + i * GOLDEN_GAMMA) >>> 32) * bound) >>> 32));
+    }
+
+    /**
+     * The finalizer of SplitMix64, which is also how SplittableRandom turns its
+     * counter into an output.
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,143 @@
+package jun.java8.example;
+
+/**
+ * <p>
+ * An immutable string made of a balanced tree of string pieces.
+ * </p>
+ * <p>
+ * concat() does not copy the characters of its operands, it links them into a
+ * height balanced (AVL) tree instead, so a reduction such as
+ * <code>stream.map(Rope::of).reduce(Rope.EMPTY, Rope::concat)</code> costs
+ * O(n log n) small nodes rather than the O(n²) character copies of
+ * <code>reduce("", (x, y) -> x + y)</code>. Since concat() is associative and
+ * EMPTY is its identity, the reduction is also valid for parallel() streams.
+ * The characters are copied once, when toString() materializes the rope.
+ * </p>
+ */
+public final class Rope implements CharSequence {
+
+    public static final Rope EMPTY = new Rope("");
+
+    /**
+     * Adjacent leaves shorter than this in total are merged into one leaf.
+     */
+    private static final int MAX_MERGED_LEAF = 64;
+
+    private final String leaf;
+    private final Rope left;
+    private final Rope right;
+    private final int length;
+    private final int depth;
+
+    private Rope(String leaf) {
+        this.leaf = leaf;
+        this.left = null;
+        this.right = null;
+        this.length = leaf.length();
+        this.depth = 0;
+    }
+
+    private Rope(Rope left, Rope right) {
+        if ((long) left.length + right.length > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError("rope length exceeds Integer.MAX_VALUE");
+        }
+        this.leaf = null;
+        this.left = left;
+        this.right = right;
+        this.length = left.length + right.length;
+        this.depth = Math.max(left.depth, right.depth) + 1;
+    }
+
+    public static Rope of(CharSequence chars) {
+        return chars.length() == 0 ? EMPTY : new Rope(chars.toString());
+    }
+
+    public Rope concat(Rope other) {
+        if (other.length == 0) {
+            return this;
+        }
+        if (this.length == 0) {
+            return other;
+        }
+        return join(this, other);
+    }
+
+    private static Rope join(Rope a, Rope b) {
+        if (a.depth > b.depth + 1) {
+            return balance(a.left, join(a.right, b));
+        }
+        if (b.depth > a.depth + 1) {
+            return balance(join(a, b.left), b.right);
+        }
+        if (a.leaf != null && b.leaf != null && a.length + b.length <= MAX_MERGED_LEAF) {
+            return new Rope(a.leaf.concat(b.leaf));
+        }
+        return new Rope(a, b);
+    }
+
+    /**
+     * Link two ropes whose depths differ by at most two, rotating once or twice
+     * to restore the balance.
+     */
+    private static Rope balance(Rope l, Rope r) {
+        if (r.depth > l.depth + 1) {
+            if (r.right.depth >= r.left.depth) {
+                return new Rope(new Rope(l, r.left), r.right);
+            }
+            return new Rope(new Rope(l, r.left.left), new Rope(r.left.right, r.right));
+        }
+        if (l.depth > r.depth + 1) {
+            if (l.left.depth >= l.right.depth) {
+                return new Rope(l.left, new Rope(l.right, r));
+            }
+            return new Rope(new Rope(l.left, l.right.left), new Rope(l.right.right, r));
+        }
+        return new Rope(l, r);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        Rope node = this;
+        while (node.leaf == null) {
+            if (index < node.left.length) {
+                node = node.left;
+            } else {
+                index -= node.left.length;
+                node = node.right;
+            }
+        }
+        return node.leaf.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (leaf != null) {
+            return leaf;
+        }
+        char[] chars = new char[length];
+        copyTo(chars, 0);
+        return new String(chars);
+    }
+
+    private void copyTo(char[] chars, int offset) {
+        if (leaf != null) {
+            leaf.getChars(0, length, chars, offset);
+        } else {
+            left.copyTo(chars, offset);
+            right.copyTo(chars, offset + left.length);
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package jun.java8.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * <p>
+ * Top-k selection for object and primitive streams.
+ * </p>
+ * <p>
+ * <code>sorted().limit(k)</code> sorts every element to keep k of them, and in parallel
+ * an ordered limit() buffers heavily. The operations here keep a bounded heap of at most
+ * k elements per thread, which costs O(n log k) time and O(k) memory per thread, and
+ * merge the heaps at the end. They are unordered: which of several equal elements is
+ * kept is unspecified.
+ * </p>
+ */
+public final class TopK {
+
+    /**
+     * The heaps start with room for this many elements and grow up to k, so a large k
+     * does not allocate k slots for a stream which turns out to be short.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private TopK() {
+    }
+
+    /**
+     * The first k elements in comparator order, the same elements as
+     * <code>sorted(comparator).limit(k)</code>, as a list sorted by the comparator.
+     */
+    public static <T> Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator) {
+        checkK(k);
+        return Collector.of(
+                () -> new ObjectHeap<T>(k, comparator),
+                ObjectHeap::accept,
+                ObjectHeap::merge,
+                ObjectHeap::toSortedList,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * The k smallest elements in ascending order.
+     */
+    public static int[] smallest(IntStream stream, int k) {
+        checkK(k);
+        return stream.collect(() -> new IntHeap(k, false), IntHeap::accept, IntHeap::merge).toSortedArray();
+    }
+
+    /**
+     * The k largest elements in descending order.
+     */
+    public static int[] largest(IntStream stream, int k) {
+        checkK(k);
+        return stream.collect(() -> new IntHeap(k, true), IntHeap::accept, IntHeap::merge).toSortedArray();
+    }
+
+    /**
+     * The k smallest elements in ascending order.
+     */
+    public static long[] smallest(LongStream stream, int k) {
+        checkK(k);
+        return stream.collect(() -> new LongHeap(k, false), LongHeap::accept, LongHeap::merge).toSortedArray();
+    }
+
+    /**
+     * The k largest elements in descending order.
+     */
+    public static long[] largest(LongStream stream, int k) {
+        checkK(k);
+        return stream.collect(() -> new LongHeap(k, true), LongHeap::accept, LongHeap::merge).toSortedArray();
+    }
+
+    /**
+     * The k smallest elements in ascending order, in the order of Double.compare().
+     */
+    public static double[] smallest(DoubleStream stream, int k) {
+        checkK(k);
+        return stream.collect(() -> new DoubleHeap(k, false), DoubleHeap::accept, DoubleHeap::merge).toSortedArray();
+    }
+
+    /**
+     * The k largest elements in descending order, in the order of Double.compare().
+     */
+    public static double[] largest(DoubleStream stream, int k) {
+        checkK(k);
+        return stream.collect(() -> new DoubleHeap(k, true), DoubleHeap::accept, DoubleHeap::merge).toSortedArray();
+    }
+
+    private static void checkK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+    }
+
+    /**
+     * At most k elements, the worst of them at the head of the queue.
+     */
+    private static final class ObjectHeap<T> {
+
+        private final int k;
+        private final Comparator<? super T> comparator;
+        private final PriorityQueue<T> queue;
+
+        ObjectHeap(int k, Comparator<? super T> comparator) {
+            this.k = k;
+            this.comparator = comparator;
+            this.queue = new PriorityQueue<>(Math.max(1, Math.min(k, INITIAL_CAPACITY)), comparator.reversed());
+        }
+
+        void accept(T value) {
+            if (queue.size() < k) {
+                queue.add(value);
+            } else if (k > 0 && comparator.compare(value, queue.peek()) < 0) {
+                queue.poll();
+                queue.add(value);
+            }
+        }
+
+        ObjectHeap<T> merge(ObjectHeap<T> other) {
+            ObjectHeap<T> larger = queue.size() >= other.queue.size() ? this : other;
+            ObjectHeap<T> smaller = larger == this ? other : this;
+            for (T value : smaller.queue) {
+                larger.accept(value);
+            }
+            return larger;
+        }
+
+        List<T> toSortedList() {
+            List<T> list = new ArrayList<>(queue);
+            list.sort(comparator);
+            return list;
+        }
+    }
+
+    /**
+     * A binary heap of at most k primitives, the worst of them at the root. The
+     * subclasses keep the values in an array of their own type and compare and swap
+     * them by index, the sifting is shared.
+     */
+    private abstract static class PrimitiveHeap {
+
+        final int k;
+        final boolean largest;
+        int size;
+
+        PrimitiveHeap(int k, boolean largest) {
+            this.k = k;
+            this.largest = largest;
+        }
+
+        /**
+         * The ascending order of the values at i and j.
+         */
+        abstract int compare(int i, int j);
+
+        abstract void swap(int i, int j);
+
+        abstract int capacity();
+
+        abstract void resize(int capacity);
+
+        abstract void sortAscending();
+
+        static int initialCapacity(int k) {
+            return Math.min(k, INITIAL_CAPACITY);
+        }
+
+        /**
+         * Whether a value which compares so to another is a worse candidate, i.e.
+         * should be closer to the root.
+         */
+        final boolean worse(int compare) {
+            return largest ? compare < 0 : compare > 0;
+        }
+
+        /**
+         * Make room for one more value at index size.
+         */
+        final void ensureCapacity() {
+            if (size == capacity()) {
+                resize((int) Math.min(k, 2L * size));
+            }
+        }
+
+        final void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(compare(i, parent))) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        final void siftDown(int i) {
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && worse(compare(child + 1, child))) {
+                    child++;
+                }
+                if (!worse(compare(child, i))) {
+                    break;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        /**
+         * Sort the values best first. The heap is no longer a heap afterwards.
+         */
+        final void sort() {
+            sortAscending();
+            if (largest) {
+                for (int i = 0, j = size - 1; i < j; i++, j--) {
+                    swap(i, j);
+                }
+            }
+        }
+    }
+
+    private static final class IntHeap extends PrimitiveHeap {
+
+        private int[] values;
+
+        IntHeap(int k, boolean largest) {
+            super(k, largest);
+            this.values = new int[initialCapacity(k)];
+        }
+
+        void accept(int value) {
+            if (size < k) {
+                ensureCapacity();
+                values[size] = value;
+                siftUp(size++);
+            } else if (size > 0 && worse(Integer.compare(values[0], value))) {
+                values[0] = value;
+                siftDown(0);
+            }
+        }
+
+        void merge(IntHeap other) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.values[i]);
+            }
+        }
+
+        int[] toSortedArray() {
+            sort();
+            return Arrays.copyOf(values, size);
+        }
+
+        @Override
+        int compare(int i, int j) {
+            return Integer.compare(values[i], values[j]);
+        }
+
+        @Override
+        void swap(int i, int j) {
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void sortAscending() {
+            Arrays.sort(values, 0, size);
+        }
+    }
+
+    private static final class LongHeap extends PrimitiveHeap {
+
+        private long[] values;
+
+        LongHeap(int k, boolean largest) {
+            super(k, largest);
+            this.values = new long[initialCapacity(k)];
+        }
+
+        void accept(long value) {
+            if (size < k) {
+                ensureCapacity();
+                values[size] = value;
+                siftUp(size++);
+            } else if (size > 0 && worse(Long.compare(values[0], value))) {
+                values[0] = value;
+                siftDown(0);
+            }
+        }
+
+        void merge(LongHeap other) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.values[i]);
+            }
+        }
+
+        long[] toSortedArray() {
+            sort();
+            return Arrays.copyOf(values, size);
+        }
+
+        @Override
+        int compare(int i, int j) {
+            return Long.compare(values[i], values[j]);
+        }
+
+        @Override
+        void swap(int i, int j) {
+            long tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void sortAscending() {
+            Arrays.sort(values, 0, size);
+        }
+    }
+
+    private static final class DoubleHeap extends PrimitiveHeap {
+
+        private double[] values;
+
+        DoubleHeap(int k, boolean largest) {
+            super(k, largest);
+            this.values = new double[initialCapacity(k)];
+        }
+
+        void accept(double value) {
+            if (size < k) {
+                ensureCapacity();
+                values[size] = value;
+                siftUp(size++);
+            } else if (size > 0 && worse(Double.compare(values[0], value))) {
+                values[0] = value;
+                siftDown(0);
+            }
+        }
+
+        void merge(DoubleHeap other) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.values[i]);
+            }
+        }
+
+        double[] toSortedArray() {
+            sort();
+            return Arrays.copyOf(values, size);
+        }
+
+        @Override
+        int compare(int i, int j) {
+            return Double.compare(values[i], values[j]);
+        }
+
+        @Override
+        void swap(int i, int j) {
+            double tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void sortAscending() {
+            Arrays.sort(values, 0, size);
+        }
+    }
+}
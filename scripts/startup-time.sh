@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+#
+# Compare the startup time of the example applications with and without the class
+# data sharing archive built by the cds profile:
+#
+#   mvn -Pcds package
+#   scripts/startup-time.sh [runs] [module...]
+#
+# JAVA selects the java executable (JDK 13 or later), the default is java on the PATH.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAVA=${JAVA:-java}
+RUNS=${1:-10}
+shift || true
+MODULES=("$@")
+if [ ${#MODULES[@]} -eq 0 ]; then
+    for archive in java8-*/target/*.jsa; do
+        MODULES+=("${archive%%/*}")
+    done
+fi
+
+# Print the average wall clock time of RUNS runs of the command, in milliseconds.
+average_ms() {
+    local total=0
+    for ((i = 0; i < RUNS; i++)); do
+        local start end
+        start=$(date +%s%N)
+        "$@" > /dev/null 2>&1
+        end=$(date +%s%N)
+        total=$((total + end - start))
+    done
+    echo $((total / RUNS / 1000000))
+}
+
+printf '%-36s %12s %12s\n' module 'default ms' 'archive ms'
+for module in "${MODULES[@]}"; do
+    jar=$(ls "$module"/target/"$module"-*.jar | grep -E -- '-[0-9.]+(-SNAPSHOT)?\.jar$' | head -1)
+    archive=${jar%.jar}.jsa
+    if [ ! -f "$archive" ]; then
+        echo "$module: no $archive, build it with mvn -Pcds package" >&2
+        continue
+    fi
+    main=jun.java8.example.Application
+    without=$(average_ms "$JAVA" -cp "$jar" "$main")
+    with=$(average_ms "$JAVA" -XX:SharedArchiveFile="$archive" -cp "$jar" "$main")
+    printf '%-36s %12s %12s\n' "$module" "$without" "$with"
+done